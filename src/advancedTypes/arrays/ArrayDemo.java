@@ -56,5 +56,31 @@ public class ArrayDemo {
         arr1.remove(21);
         System.out.println(arr1);
         System.out.println(arr1.contains(40));
+        arr1.removeIf(value -> value % 2 == 0);
+        System.out.println(arr1);
+        arr1.removeRange(0, 3);
+        arr1.insertAll(0, new Integer[]{-3, -2, -1});
+        System.out.println(arr1);
+        arr1.setGrowthPolicy(MyArrayList.GROW_ONE_AND_A_HALF);
+        arr1.trimToSize();
+        System.out.println(arr1);
+        for (Integer value : arr1) {
+            System.out.print(value + " ");
+        }
+        System.out.println();
+        System.out.println(arr1.parallelStream().mapToInt(Integer::intValue).sum()); // 106
+
+        IntArrayList ints = new IntArrayList();
+        ints.addAll(new int[]{3, 1, 4, 1, 5, 9, 2, 6});
+        ints.add(0, 42);
+        System.out.println(ints);
+        System.out.println(ints.stream().sum()); // 73
+        ints.forEach(value -> System.out.print(value + " "));
+        System.out.println();
+
+        LongArrayList longs = new LongArrayList(2);
+        longs.addAll(new long[]{1L << 40, 1L << 41});
+        longs.add(7L);
+        System.out.println(longs.stream().max().getAsLong()); // 2199023255552
     }
 }
@@ -0,0 +1,209 @@
+package advancedTypes.arrays;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * IntArrayList is a dynamic array of primitive ints, the int-specialized sibling of MyArrayList.
+ *
+ * Values live directly in an int[], so nothing is boxed on add/get, and growth/shifting is done with
+ * System.arraycopy instead of element by element copies.
+ */
+public class IntArrayList {
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private int[] array;
+    private int size;
+
+    /**
+     * Default constructor without the array size specified
+     */
+    public IntArrayList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Overloaded constructor with the array size specified by 'capacity'
+     * @param capacity initial size of array
+     */
+    public IntArrayList(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity: " + capacity + " is negative");
+        this.array = new int[capacity];
+        this.size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        str.append("capacity: ").append(this.array.length).append(" array size: ").append(this.size).append(" [");
+        for (int i = 0; i < this.size; i++) {
+            if (i > 0) str.append(", ");
+            str.append(this.array[i]);
+        }
+        str.append("]");
+        return str.toString();
+    }
+
+    /**
+     * Adds an element to the end.
+     * Time: O(1) amortized
+     * @param element
+     */
+    public void add(int element) {
+        this.ensureCapacity(this.size + 1);
+        this.array[this.size] = element;
+        this.size += 1;
+    }
+
+    /**
+     * Insert an element at a specific index
+     * Time: O(n)
+     * @param index
+     * @param element
+     */
+    public void add(int index, int element) {
+        if (index > this.size || index < 0) throw new IndexOutOfBoundsException("index: " + index + " is out of " +
+                "bounds");
+        this.ensureCapacity(this.size + 1);
+        System.arraycopy(this.array, index, this.array, index + 1, this.size - index);
+        this.array[index] = element;
+        this.size += 1;
+    }
+
+    /**
+     * Appends all the elements in one copy.
+     * Time: O(m)
+     * where m is the number of elements being added
+     * @param elements
+     */
+    public void addAll(int[] elements) {
+        this.ensureCapacity(this.size + elements.length);
+        System.arraycopy(elements, 0, this.array, this.size, elements.length);
+        this.size += elements.length;
+    }
+
+    /**
+     * Returns the element at the given index
+     */
+    public int get(int index) {
+        this.checkIndex(index);
+        return this.array[index];
+    }
+
+    /**
+     * Replaces the element at the given index and returns the old one
+     */
+    public int set(int index, int element) {
+        this.checkIndex(index);
+        int old = this.array[index];
+        this.array[index] = element;
+        return old;
+    }
+
+    /**
+     * Removes element at index and shifts remaining
+     * Time: O(n)
+     */
+    public int remove(int index) {
+        this.checkIndex(index);
+        int element = this.array[index];
+        System.arraycopy(this.array, index + 1, this.array, index, this.size - index - 1);
+        this.size -= 1;
+        return element;
+    }
+
+    /**
+     * Returns the number of elements
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns true if list is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Empties the list. primitives hold no references, so the backing array is left as is.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Grows the internal array so it holds at least minCapacity elements. capacity grows by at least 1.5x.
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity <= this.array.length) return;
+        if (minCapacity < 0) throw new OutOfMemoryError("required capacity overflows int");
+        int newCapacity = this.array.length + (this.array.length >> 1);
+        if (newCapacity < minCapacity || newCapacity < 0) newCapacity = minCapacity;
+        this.array = Arrays.copyOf(this.array, newCapacity);
+    }
+
+    /**
+     * Shrinks the internal array to the current size.
+     */
+    public void trimToSize() {
+        if (this.size < this.array.length) this.array = Arrays.copyOf(this.array, this.size);
+    }
+
+    /**
+     * Returns true if array contains the request element, false otherwise
+     */
+    public boolean contains(int element) {
+        return this.indexOf(element) >= 0;
+    }
+
+    /**
+     * Returns the index of the given element. returns -1 if element is not found
+     */
+    public int indexOf(int element) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.array[i] == element) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a copy of the elements.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(this.array, this.size);
+    }
+
+    /**
+     * Copies the elements into dest starting at destPos, without allocating.
+     */
+    public void toArray(int[] dest, int destPos) {
+        System.arraycopy(this.array, 0, dest, destPos, this.size);
+    }
+
+    /**
+     * Runs action on every element in order. the consumer takes a primitive int, so nothing is boxed.
+     */
+    public void forEach(IntConsumer action) {
+        int[] elements = this.array;
+        int n = this.size;
+        for (int i = 0; i < n; i++) {
+            action.accept(elements[i]);
+        }
+    }
+
+    /**
+     * Returns a sequential IntStream over the current elements, backed by the internal array.
+     * the list must not be modified while the stream is being consumed.
+     */
+    public IntStream stream() {
+        return Arrays.stream(this.array, 0, this.size);
+    }
+
+    private void checkIndex(int index) {
+        if (index >= this.size || index < 0) throw new IndexOutOfBoundsException("index: " + index + " is out of " +
+                "bounds");
+    }
+}
@@ -2,17 +2,41 @@ package advancedTypes.arrays;
 
 import java.lang.reflect.Array;
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * MyArrayList is an implementation of dynamic array, just like ArrayList in Java.
+ *
+ * Growth is controlled by a growth policy that maps the current capacity to the next one. the default doubles,
+ * GROW_ONE_AND_A_HALF trades more frequent copies for less unused capacity, and any IntUnaryOperator can be plugged
+ * in to cap the overhead. trimToSize gives back all unused capacity.
+ *
+ * MyArrayList is Iterable and can be streamed without copying. its Spliterator is SIZED and SUBSIZED and splits by
+ * halving the index range, so parallelStream() divides the work evenly across cores. iterators and spliterators are
+ * fail-fast: any structural modification (add, remove, clear, ...) made after they start throws
+ * ConcurrentModificationException.
  * @param <T>
  */
-public class MyArrayList<T> {
+public class MyArrayList<T> implements Iterable<T> {
+    public static final IntUnaryOperator DOUBLE = capacity -> capacity * 2;
+    public static final IntUnaryOperator GROW_ONE_AND_A_HALF = capacity -> capacity + (capacity >> 1);
+
     private T[] array;
     private Class<T> clazz;
     // index points to the last index in the array that's not null
     private int index;
     private int capacity;
+    private IntUnaryOperator growthPolicy = DOUBLE;
+    // bumped on every structural modification, checked by iterators and spliterators
+    private int modCount = 0;
 
     /**
      * Default constructor without the array size specified
@@ -30,6 +54,7 @@ public class MyArrayList<T> {
      */
     public MyArrayList(Class<T> clazz, int size) {
         this.capacity = size;
+        this.clazz = clazz;
         this.array = (T[]) Array.newInstance(clazz, this.capacity);
         this.index = -1;
     }
@@ -58,6 +83,7 @@ public class MyArrayList<T> {
     public void add(T element) {
         this.ensureCapacity();
         this.index += 1;
+        this.modCount += 1;
         this.array[this.index] = element;
         return;
     }
@@ -71,13 +97,30 @@ public class MyArrayList<T> {
         if (index > this.index || index < -1) throw new IndexOutOfBoundsException("index: " + index + " is out of " +
                 "bounds");
         this.ensureCapacity();
+        System.arraycopy(this.array, index, this.array, index + 1, this.index + 1 - index);
         this.index += 1;
-        for (int i = this.index; i > index; i--) {
-            this.array[i] = this.array[i-1];
-        }
+        this.modCount += 1;
         this.array[index] = element;
     }
 
+    /**
+     * Insert all elements starting at a specific index, shifting the tail once.
+     * Time: O(n + m)
+     * where m is the number of elements being inserted
+     * @param index position of the first inserted element, between 0 and size()
+     * @param elements
+     */
+    public void insertAll(int index, T[] elements) {
+        int size = this.size();
+        if (index > size || index < 0) throw new IndexOutOfBoundsException("index: " + index + " is out of " +
+                "bounds");
+        this.ensureCapacity(size + elements.length);
+        System.arraycopy(this.array, index, this.array, index + elements.length, size - index);
+        System.arraycopy(elements, 0, this.array, index, elements.length);
+        this.index += elements.length;
+        this.modCount += 1;
+    }
+
     /**
      * Returns the element at the given index
      */
@@ -93,14 +136,65 @@ public class MyArrayList<T> {
     public T remove(int index) {
         if (index > this.index) throw new IndexOutOfBoundsException("index: " + index + "is out of bounds");
         T element = this.array[index];
-        for (int i = index; i < this.index; i++) {
-            this.array[i] = this.array[i+1];
-        }
+        System.arraycopy(this.array, index + 1, this.array, index, this.index - index);
         this.array[this.index] = null;
         this.index -= 1;
+        this.modCount += 1;
         return element;
     }
 
+    /**
+     * Removes the elements in [fromIndex, toIndex) and shifts the tail once.
+     * Time: O(n)
+     * @param fromIndex inclusive
+     * @param toIndex exclusive
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        int size = this.size();
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) throw new IndexOutOfBoundsException(
+                "range: [" + fromIndex + ", " + toIndex + ") is out of bounds");
+        System.arraycopy(this.array, toIndex, this.array, fromIndex, size - toIndex);
+        int newSize = size - (toIndex - fromIndex);
+        Arrays.fill(this.array, newSize, size, null);
+        this.index = newSize - 1;
+        this.modCount += 1;
+    }
+
+    /**
+     * Removes every element matching filter in two passes, like ArrayList.removeIf:
+     * - mark: run filter over every element and record the matches in a bitset, without touching the array
+     * - compact: copy the survivors down over the removed slots in one sweep
+     * Removing k of n elements costs O(n) rather than O(k * n). if filter throws, it throws during the mark pass and
+     * the list is left unchanged.
+     * Time: O(n)
+     * Space: O(n / 64) for the bitset
+     * @param filter
+     * @return true if any element was removed
+     */
+    public boolean removeIf(Predicate<? super T> filter) {
+        int size = this.size();
+        long[] removed = null;
+        int removeCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (filter.test(this.array[i])) {
+                if (removed == null) removed = new long[((size - 1) >> 6) + 1];
+                removed[i >> 6] |= 1L << i;
+                removeCount += 1;
+            }
+        }
+        if (removeCount == 0) return false;
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            if ((removed[read >> 6] & (1L << read)) != 0) continue;
+            this.array[write] = this.array[read];
+            write += 1;
+        }
+        Arrays.fill(this.array, write, size, null);
+        this.index = write - 1;
+        this.modCount += 1;
+        return true;
+    }
+
     /**
      * Returns the number of elements
      */
@@ -120,23 +214,50 @@ public class MyArrayList<T> {
      * Empties the list
      */
     public void clear() {
-        for (int i = 0; i <= this.index; i++) {
-            this.array[i] = null;
-        }
+        Arrays.fill(this.array, 0, this.index + 1, null);
+        this.index = -1;
+        this.modCount += 1;
     }
 
     /**
-     * Doubles the internal array when full
+     * Grows the internal array according to the growth policy when full
      */
     public void ensureCapacity() {
-        if (this.index + 1 >= this.capacity) {
-            T[] newArray = (T[]) Array.newInstance(this.clazz, this.capacity * 2);
-            for (int i = 0; i <= this.index; i++) {
-                newArray[i] = this.array[i];
-            }
-            this.array = newArray;
-            this.capacity *= 2;
-        }
+        this.ensureCapacity(this.index + 2);
+    }
+
+    /**
+     * Grows the internal array so it holds at least minCapacity elements. the growth policy picks the new capacity,
+     * unless it is too small to fit minCapacity.
+     * @param minCapacity
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity <= this.capacity) return;
+        if (minCapacity < 0) throw new OutOfMemoryError("required capacity overflows int");
+        int newCapacity = this.growthPolicy.applyAsInt(this.capacity);
+        if (newCapacity < minCapacity) newCapacity = minCapacity;
+        this.array = Arrays.copyOf(this.array, newCapacity);
+        this.capacity = newCapacity;
+    }
+
+    /**
+     * Shrinks the internal array to the number of elements
+     */
+    public void trimToSize() {
+        int size = this.size();
+        if (size == this.capacity) return;
+        this.array = Arrays.copyOf(this.array, size);
+        this.capacity = size;
+    }
+
+    /**
+     * Sets the function that maps the current capacity to the next capacity when the array is full.
+     * e.g. GROW_ONE_AND_A_HALF, or capacity -> capacity + Math.min(capacity, 1 << 20) to cap each step at 1M slots.
+     * @param growthPolicy
+     */
+    public void setGrowthPolicy(IntUnaryOperator growthPolicy) {
+        if (growthPolicy == null) throw new IllegalArgumentException("growthPolicy must not be null");
+        this.growthPolicy = growthPolicy;
     }
 
     /**
@@ -158,4 +279,117 @@ public class MyArrayList<T> {
         }
         return -1;
     }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return new IndexSpliterator(0, -1, 0);
+    }
+
+    /**
+     * Returns a sequential Stream backed by this list, no copy is made.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel Stream backed by this list, no copy is made.
+     */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(this.spliterator(), true);
+    }
+
+    private class Itr implements Iterator<T> {
+        private int cursor = 0;
+        private final int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return this.cursor <= index;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != this.expectedModCount) throw new ConcurrentModificationException();
+            if (this.cursor > index) throw new NoSuchElementException();
+            T element = array[this.cursor];
+            this.cursor += 1;
+            return element;
+        }
+    }
+
+    /**
+     * Spliterator over the index range [origin, fence). it binds to the list's size and modCount on first use rather
+     * than on creation, so a stream built before the last add still sees every element.
+     */
+    private class IndexSpliterator implements Spliterator<T> {
+        private int origin;
+        // one past the last index, -1 until bound
+        private int fence;
+        private int expectedModCount;
+
+        IndexSpliterator(int origin, int fence, int expectedModCount) {
+            this.origin = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() {
+            if (this.fence < 0) {
+                this.expectedModCount = modCount;
+                this.fence = size();
+            }
+            return this.fence;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int lo = this.origin;
+            int hi = this.getFence();
+            int mid = (lo + hi) >>> 1;
+            if (lo >= mid) return null;
+            // the prefix half is handed off, this spliterator keeps the suffix
+            this.origin = mid;
+            return new IndexSpliterator(lo, mid, this.expectedModCount);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (action == null) throw new NullPointerException();
+            int hi = this.getFence();
+            if (this.origin >= hi) return false;
+            T element = array[this.origin];
+            this.origin += 1;
+            action.accept(element);
+            if (modCount != this.expectedModCount) throw new ConcurrentModificationException();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (action == null) throw new NullPointerException();
+            int hi = this.getFence();
+            T[] elements = array;
+            for (int i = this.origin; i < hi; i++) {
+                action.accept(elements[i]);
+            }
+            this.origin = hi;
+            if (modCount != this.expectedModCount) throw new ConcurrentModificationException();
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.getFence() - this.origin;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
 }
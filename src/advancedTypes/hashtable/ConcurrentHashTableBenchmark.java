@@ -0,0 +1,143 @@
+package advancedTypes.hashtable;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput comparison of ConcurrentMyHashTable against a MyHashTable guarded by one coarse lock.
+ *
+ * Each run starts N threads that hammer a shared pre-filled table with a 90% get / 10% put mix over KEY_SPACE keys
+ * for RUN_MILLIS, then reports million operations per second. Thread counts go from 1 to 64.
+ *
+ * This is a plain main() harness, not JMH. run it with -server and a fixed heap (e.g. -Xms2g -Xmx2g) and treat the
+ * numbers as relative, not absolute.
+ */
+public class ConcurrentHashTableBenchmark {
+    private static final int KEY_SPACE = 1 << 16;
+    private static final int STRIPES = 64;
+    private static final int READ_PERCENT = 90;
+    private static final int WARMUP_MILLIS = 500;
+    private static final int RUN_MILLIS = 1000;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+
+    private interface Table {
+        Integer get(Integer key);
+
+        void put(Integer key, Integer value);
+    }
+
+    /**
+     * The baseline: every operation serializes on one monitor.
+     */
+    private static class CoarseLockedTable implements Table {
+        private final MyHashTable<Integer, Integer> table = new MyHashTable<>(KEY_SPACE * 2);
+
+        public synchronized Integer get(Integer key) {
+            return this.table.get(key);
+        }
+
+        public synchronized void put(Integer key, Integer value) {
+            this.table.put(key, value);
+        }
+    }
+
+    private static class StripedTable implements Table {
+        private final ConcurrentMyHashTable<Integer, Integer> table =
+                new ConcurrentMyHashTable<>(KEY_SPACE * 2, STRIPES);
+
+        public Integer get(Integer key) {
+            return this.table.get(key);
+        }
+
+        public void put(Integer key, Integer value) {
+            this.table.put(key, value);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        // pre-box every key so the measurement is not dominated by Integer allocation
+        Integer[] keys = new Integer[KEY_SPACE];
+        for (int i = 0; i < KEY_SPACE; i++) {
+            keys[i] = i;
+        }
+
+        printSegmentSpread(keys);
+        System.out.printf("%-8s %18s %18s%n", "threads", "coarse (Mops/s)", "striped (Mops/s)");
+        for (int threads : THREAD_COUNTS) {
+            double coarse = run(new CoarseLockedTable(), keys, threads);
+            double striped = run(new StripedTable(), keys, threads);
+            System.out.printf("%-8d %18.2f %18.2f%n", threads, coarse, striped);
+        }
+    }
+
+    /**
+     * How the benchmark keys spread over the stripes. a skewed spread would make the striped table measure one lock.
+     */
+    private static void printSegmentSpread(Integer[] keys) {
+        ConcurrentMyHashTable<Integer, Integer> table = new ConcurrentMyHashTable<>(KEY_SPACE * 2, STRIPES);
+        int[] perSegment = new int[table.segmentCount()];
+        for (Integer key : keys) {
+            perSegment[table.segmentIndex(key)] += 1;
+        }
+        int used = 0;
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (int count : perSegment) {
+            if (count > 0) used += 1;
+            min = Math.min(min, count);
+            max = Math.max(max, count);
+        }
+        System.out.printf("%d keys over %d stripes: %d used, %d to %d keys each%n", keys.length, perSegment.length,
+                used, min, max);
+    }
+
+    private static double run(Table table, Integer[] keys, int threads) throws InterruptedException {
+        for (Integer key : keys) {
+            table.put(key, key);
+        }
+        measure(table, keys, threads, WARMUP_MILLIS);
+        long ops = measure(table, keys, threads, RUN_MILLIS);
+        return ops / (RUN_MILLIS * 1000.0);
+    }
+
+    /**
+     * @return total operations completed by all threads within millis
+     */
+    private static long measure(Table table, Integer[] keys, int threads, int millis) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] deadline = new long[1];
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        // check the clock once per batch so nanoTime does not dominate
+                        for (int i = 0; i < 256; i++) {
+                            Integer key = keys[random.nextInt(KEY_SPACE)];
+                            if (random.nextInt(100) < READ_PERCENT) table.get(key);
+                            else table.put(key, key);
+                        }
+                        count += 256;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    ops.add(count);
+                    done.countDown();
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+        deadline[0] = System.nanoTime() + millis * 1_000_000L;
+        start.countDown();
+        done.await();
+        return ops.sum();
+    }
+}
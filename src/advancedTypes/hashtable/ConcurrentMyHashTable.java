@@ -0,0 +1,249 @@
+package advancedTypes.hashtable;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConcurrentMyHashTable is a thread-safe MyHashTable that splits its keys across independent lock stripes, in the
+ * spirit of the segmented ConcurrentHashMap from Java 7.
+ *
+ * Internal structure:
+ * - the top bits of the fully mixed hash pick a Segment, the low bits of the spread hash pick a bucket inside that
+ *   segment's table. spread only folds the high half into the low half, so its top bits are 0 for every hashCode
+ *   below 2^16 (small Integers, for one) and would put all of them in segment 0
+ * - each Segment owns its own table, its own ReentrantLock and its own resize, so writers on different segments
+ *   never contend
+ * - chain nodes have a final next pointer. a writer never mutates a published chain, it links a new head or copies
+ *   the nodes in front of a removed one. a reader therefore always walks a consistent chain
+ * - get/containsKey take no lock at all: they read the volatile table and bucket heads
+ * - size() sums a LongAdder, a striped counter, so writers do not fight over one shared count
+ *
+ * Reads are weakly consistent: a get racing with a put on the same key may return either the old or the new value.
+ */
+public class ConcurrentMyHashTable<K, V> {
+    private static final int DEFAULT_STRIPES = 16;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MAXIMUM_SEGMENT_CAPACITY = 1 << 30;
+
+    private static final class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        final Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private static final class Segment<K, V> {
+        final ReentrantLock lock = new ReentrantLock();
+        // replaced as a whole on resize, so readers either see the old or the new table
+        volatile AtomicReferenceArray<Node<K, V>> table;
+        // only read and written under lock
+        int count;
+        int threshold;
+
+        Segment(int capacity) {
+            this.setTable(new AtomicReferenceArray<>(capacity));
+        }
+
+        void setTable(AtomicReferenceArray<Node<K, V>> table) {
+            this.threshold = (int) (table.length() * LOAD_FACTOR);
+            this.table = table;
+        }
+    }
+
+    private final Segment<K, V>[] segments;
+    private final int segmentShift;
+    private final LongAdder size = new LongAdder();
+
+    public ConcurrentMyHashTable() {
+        this(DEFAULT_CAPACITY, DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param initialCapacity total number of buckets across all stripes, rounded up to a power of two
+     * @param stripes number of independent locks, rounded up to a power of two
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentMyHashTable(int initialCapacity, int stripes) {
+        if (initialCapacity < 0) throw new IllegalArgumentException("initialCapacity: " + initialCapacity +
+                " is negative");
+        if (stripes <= 0 || stripes > (1 << 16)) throw new IllegalArgumentException("stripes: " + stripes +
+                " must be in [1, 65536]");
+        int segmentCount = tableSizeFor(stripes);
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+        int perSegment = tableSizeFor(Math.max(2, (initialCapacity + segmentCount - 1) / segmentCount));
+        this.segments = (Segment<K, V>[]) new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            this.segments[i] = new Segment<>(perSegment);
+        }
+    }
+
+    private Segment<K, V> segmentFor(int hash) {
+        return this.segments[this.segmentIndexFor(hash)];
+    }
+
+    private int segmentIndexFor(int hash) {
+        // a shift by 32 is a no-op in Java, so a single stripe needs its own case
+        if (this.segments.length == 1) return 0;
+        return mix(hash) >>> this.segmentShift;
+    }
+
+    /**
+     * Index of the segment key belongs to, for checking how evenly keys spread over the stripes.
+     */
+    int segmentIndex(K key) {
+        return this.segmentIndexFor(MyHashTable.spread(key));
+    }
+
+    int segmentCount() {
+        return this.segments.length;
+    }
+
+    /**
+     * murmur3 fmix32 finalizer: every input bit affects every output bit, so the top bits that pick the segment depend
+     * on the whole hash.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Time: O(n)
+     * Space: O(1)
+     * where n is the longest bucket chain size. blocks only writers on the same stripe.
+     * @param key
+     * @param value
+     */
+    public void put(K key, V value) {
+        if (value == null) throw new NullPointerException("value must not be null");
+        int hash = MyHashTable.spread(key);
+        Segment<K, V> segment = this.segmentFor(hash);
+        segment.lock.lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> table = segment.table;
+            int index = hash & (table.length() - 1);
+            Node<K, V> head = table.get(index);
+            // replace existing key
+            for (Node<K, V> node = head; node != null; node = node.next) {
+                if (node.hash == hash && node.key.equals(key)) {
+                    node.value = value;
+                    return;
+                }
+            }
+            // publish a new head, the old chain is left untouched
+            table.set(index, new Node<>(hash, key, value, head));
+            segment.count += 1;
+            this.size.increment();
+            if (segment.count > segment.threshold) this.resize(segment);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Lock-free lookup.
+     * Time: O(n)
+     * Space: O(1)
+     * where n is the longest bucket chain size
+     * @param key
+     * @return
+     */
+    public V get(K key) {
+        int hash = MyHashTable.spread(key);
+        AtomicReferenceArray<Node<K, V>> table = this.segmentFor(hash).table;
+        for (Node<K, V> node = table.get(hash & (table.length() - 1)); node != null; node = node.next) {
+            if (node.hash == hash && node.key.equals(key)) return node.value;
+        }
+        return null;
+    }
+
+    /**
+     * Time: O(n)
+     * Space: O(n)
+     * where n is the longest bucket chain size. the nodes in front of the removed one are copied so that readers
+     * already walking the chain are not affected.
+     * @param key
+     * @return
+     */
+    public boolean remove(K key) {
+        int hash = MyHashTable.spread(key);
+        Segment<K, V> segment = this.segmentFor(hash);
+        segment.lock.lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> table = segment.table;
+            int index = hash & (table.length() - 1);
+            Node<K, V> head = table.get(index);
+            Node<K, V> target = head;
+            while (target != null && !(target.hash == hash && target.key.equals(key))) {
+                target = target.next;
+            }
+            if (target == null) return false;
+
+            Node<K, V> newHead = target.next;
+            for (Node<K, V> node = head; node != target; node = node.next) {
+                newHead = new Node<>(node.hash, node.key, node.value, newHead);
+            }
+            table.set(index, newHead);
+            segment.count -= 1;
+            this.size.decrement();
+            return true;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public boolean containsKey(K key) {
+        return this.get(key) != null;
+    }
+
+    /**
+     * Sum of the striped counter. exact when no writer is running, an estimate otherwise.
+     */
+    public int size() {
+        return (int) Math.min(this.size.sum(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Double the segment's table. must be called with the segment lock held.
+     * Nodes are copied rather than relinked, so readers still holding the old table keep seeing every entry.
+     */
+    private void resize(Segment<K, V> segment) {
+        AtomicReferenceArray<Node<K, V>> old = segment.table;
+        int oldCapacity = old.length();
+        if (oldCapacity >= MAXIMUM_SEGMENT_CAPACITY) {
+            segment.threshold = Integer.MAX_VALUE;
+            return;
+        }
+        AtomicReferenceArray<Node<K, V>> table = new AtomicReferenceArray<>(oldCapacity * 2);
+        int mask = oldCapacity * 2 - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            for (Node<K, V> node = old.get(i); node != null; node = node.next) {
+                int index = node.hash & mask;
+                table.set(index, new Node<>(node.hash, node.key, node.value, table.get(index)));
+            }
+        }
+        segment.setTable(table);
+    }
+
+    /**
+     * Smallest power of two >= n.
+     */
+    private static int tableSizeFor(int n) {
+        if (n <= 1) return 1;
+        if (n >= MAXIMUM_SEGMENT_CAPACITY) return MAXIMUM_SEGMENT_CAPACITY;
+        return Integer.highestOneBit(n - 1) << 1;
+    }
+}
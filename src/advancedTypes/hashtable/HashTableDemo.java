@@ -10,5 +10,22 @@ public class HashTableDemo {
         System.out.println(map.get("banana"));
         map.remove("banana");
         System.out.println(map.containsKey("banana"));
+
+        MyHashTable<Integer, Integer> growing = new MyHashTable<>(16, 0.75f, true);
+        for (int i = 0; i < 1000; i++) {
+            growing.put(i, i * i);
+        }
+        System.out.println(growing.capacity() + " " + growing.isRehashing()); // 2048 true
+        System.out.println(growing.get(999)); // 998001
+
+        IntIntHashTable intMap = new IntIntHashTable();
+        intMap.put(0, 100);
+        intMap.put(42, 4200);
+        intMap.put(-7, -700);
+        System.out.println(intMap.get(42)); // 4200
+        System.out.println(intMap.get(0)); // 100
+        intMap.remove(42);
+        System.out.println(intMap.containsKey(42)); // false
+        System.out.println(intMap.size()); // 2
     }
 }
@@ -0,0 +1,219 @@
+package advancedTypes.hashtable;
+
+import java.util.Arrays;
+
+/**
+ * IntIntHashTable is a primitive int-to-int hash table that uses open addressing instead of chaining.
+ *
+ * Unlike MyHashTable, there is no Entry object per key and no boxing of keys or values. Keys and values are kept in
+ * two parallel int[] arrays, and a key's slot is found by linear probing from its hashed index.
+ *
+ * Internal structure:
+ * - keys[i] and values[i] hold one mapping
+ * - EMPTY_KEY (0) marks an empty slot. the key 0 itself is stored out of band in hasZeroKey/zeroValue
+ * - capacity is always a power of two, so index = hash & mask
+ * - remove uses backward-shift deletion, so no tombstones are ever left behind
+ *
+ * put/get/remove/containsKey allocate nothing. only a resize allocates new arrays.
+ */
+public class IntIntHashTable {
+    private static final int EMPTY_KEY = 0;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size = 0;
+    private int threshold;
+    private final float loadFactor;
+    // value returned by get() when the key is absent
+    private final int noEntryValue;
+    private boolean hasZeroKey = false;
+    private int zeroValue;
+
+    public IntIntHashTable() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, 0);
+    }
+
+    public IntIntHashTable(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR, 0);
+    }
+
+    /**
+     * @param expectedSize number of mappings the table should hold without resizing
+     * @param loadFactor fraction of slots that may be filled before the table doubles, in (0, 1)
+     * @param noEntryValue value returned by get() for a missing key
+     */
+    public IntIntHashTable(int expectedSize, float loadFactor, int noEntryValue) {
+        if (expectedSize < 0) throw new IllegalArgumentException("expectedSize: " + expectedSize + " is negative");
+        if (loadFactor <= 0 || loadFactor >= 1) throw new IllegalArgumentException("loadFactor: " + loadFactor +
+                " must be in (0, 1)");
+        this.loadFactor = loadFactor;
+        this.noEntryValue = noEntryValue;
+        int capacity = tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / loadFactor));
+        this.allocate(capacity);
+    }
+
+    /**
+     * Insert or replace the mapping for key.
+     * Time: O(1) amortized
+     * Space: O(1)
+     * @param key
+     * @param value
+     */
+    public void put(int key, int value) {
+        if (key == EMPTY_KEY) {
+            if (!this.hasZeroKey) {
+                this.hasZeroKey = true;
+                this.size += 1;
+            }
+            this.zeroValue = value;
+            return;
+        }
+        int index = mix(key) & this.mask;
+        while (this.keys[index] != EMPTY_KEY) {
+            if (this.keys[index] == key) {
+                this.values[index] = value;
+                return;
+            }
+            index = (index + 1) & this.mask;
+        }
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.size += 1;
+        if (this.size > this.threshold) this.resize(this.keys.length * 2);
+    }
+
+    /**
+     * Time: O(1) expected
+     * Space: O(1)
+     * @param key
+     * @return the value mapped to key, or noEntryValue if key is absent
+     */
+    public int get(int key) {
+        if (key == EMPTY_KEY) return this.hasZeroKey ? this.zeroValue : this.noEntryValue;
+        int index = this.indexOf(key);
+        return index < 0 ? this.noEntryValue : this.values[index];
+    }
+
+    /**
+     * Time: O(1) expected
+     * Space: O(1)
+     * @param key
+     * @return true if key was present and removed, false otherwise
+     */
+    public boolean remove(int key) {
+        if (key == EMPTY_KEY) {
+            if (!this.hasZeroKey) return false;
+            this.hasZeroKey = false;
+            this.size -= 1;
+            return true;
+        }
+        int index = this.indexOf(key);
+        if (index < 0) return false;
+        this.shiftKeysBack(index);
+        this.size -= 1;
+        return true;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == EMPTY_KEY) return this.hasZeroKey;
+        return this.indexOf(key) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Remove all mappings, keeping the current capacity.
+     */
+    public void clear() {
+        Arrays.fill(this.keys, EMPTY_KEY);
+        this.hasZeroKey = false;
+        this.size = 0;
+    }
+
+    /**
+     * Find the slot holding key.
+     * @param key a non-zero key
+     * @return slot index, or -1 if key is absent
+     */
+    private int indexOf(int key) {
+        int index = mix(key) & this.mask;
+        int probe;
+        while ((probe = this.keys[index]) != EMPTY_KEY) {
+            if (probe == key) return index;
+            index = (index + 1) & this.mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Backward-shift deletion: empty the slot at index, then walk the rest of the probe run and move back any key
+     * whose home slot lies at or before the hole. This keeps every remaining key reachable without tombstones.
+     * @param index slot to empty
+     */
+    private void shiftKeysBack(int index) {
+        int hole = index;
+        int curr = (hole + 1) & this.mask;
+        int key;
+        while ((key = this.keys[curr]) != EMPTY_KEY) {
+            int home = mix(key) & this.mask;
+            // move key into the hole if the hole sits cyclically between its home slot and its current slot
+            if (((curr - home) & this.mask) >= ((curr - hole) & this.mask)) {
+                this.keys[hole] = key;
+                this.values[hole] = this.values[curr];
+                hole = curr;
+            }
+            curr = (curr + 1) & this.mask;
+        }
+        this.keys[hole] = EMPTY_KEY;
+    }
+
+    private void resize(int newCapacity) {
+        int[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        this.allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key == EMPTY_KEY) continue;
+            int index = mix(key) & this.mask;
+            while (this.keys[index] != EMPTY_KEY) {
+                index = (index + 1) & this.mask;
+            }
+            this.keys[index] = key;
+            this.values[index] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        this.threshold = Math.min(capacity - 1, (int) (capacity * this.loadFactor));
+    }
+
+    /**
+     * Spread the key bits so that sequential keys do not form long probe runs.
+     * Multiplies by the 32-bit golden ratio and folds the high bits down.
+     */
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Smallest power of two >= n.
+     */
+    private static int tableSizeFor(int n) {
+        if (n <= 2) return 2;
+        if (n > (1 << 30)) throw new IllegalArgumentException("capacity: " + n + " is too large");
+        return Integer.highestOneBit(n - 1) << 1;
+    }
+}
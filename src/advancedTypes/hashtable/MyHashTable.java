@@ -1,90 +1,201 @@
 package advancedTypes.hashtable;
 
-import java.util.Hashtable;
-
 class Entry<K, V> {
+    public final int hash;
     public K key;
     public V value;
     public Entry<K, V> next;
 
-    public Entry(K key, V value) {
+    public Entry(int hash, K key, V value) {
+        this.hash = hash;
         this.key = key;
         this.value = value;
     }
 }
 
+/**
+ * MyHashTable is a separate-chaining hash table, just like HashMap in Java.
+ *
+ * Internal structure:
+ * - capacity is always a power of two, so a bucket index is hash & (capacity - 1) instead of a modulo
+ * - hashCode is run through spread() first so that the high bits take part in the mask
+ * - once size exceeds capacity * loadFactor, the table doubles
+ *
+ * Resizing modes:
+ * - stop-the-world (default): the put that crosses the threshold moves every entry into the doubled table
+ * - incremental: the put that crosses the threshold only allocates the doubled table. every following
+ *   put/get/remove then migrates REHASH_STEPS buckets, so no single operation pays for a full rehash.
+ *   while a migration is in progress, a key lives in the old table if its old bucket has not been moved yet,
+ *   otherwise in the new table. a grow requested while a migration is still running (a low load factor, or a short
+ *   table with a long chain) is deferred and starts once the last old bucket has moved, so even then no operation
+ *   moves more than REHASH_STEPS buckets.
+ *
+ * Collision handling:
+ * - a bucket whose chain reaches TREEIFY_THRESHOLD entries is converted into a TreeBin (an AVL tree), so a flood of
+ *   colliding keys costs O(logn) per lookup instead of a linear equals walk
+ * - a TreeBin that shrinks to UNTREEIFY_THRESHOLD entries is converted back into a chain
+ * - tables smaller than MIN_TREEIFY_CAPACITY grow instead of treeifying, since a long chain there is more likely a
+ *   sign of an undersized table than of bad hashes
+ */
 public class MyHashTable<K, V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    // number of old buckets migrated per operation in incremental mode
+    private static final int REHASH_STEPS = 4;
+    static final int TREEIFY_THRESHOLD = 8;
+    static final int UNTREEIFY_THRESHOLD = 6;
+    static final int MIN_TREEIFY_CAPACITY = 64;
+
     private Entry<K, V>[] buckets;
-    private int capacity = 16;
+    private int capacity;
     private int size = 0;
+    private int threshold;
+    private final float loadFactor;
+    private final boolean incrementalRehash;
+    // old table being drained in incremental mode, null when no migration is in progress
+    private Entry<K, V>[] oldBuckets;
+    // every old bucket below this index has already been moved into buckets
+    private int rehashIndex;
+    // a grow requested during an incremental migration, started when that migration finishes
+    private boolean growPending;
 
     public MyHashTable() {
-        this.buckets = new Entry[capacity];
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, false);
     }
 
-    private int getBucketIndex(K key) {
-        return Math.abs(key.hashCode()) % capacity;
+    public MyHashTable(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR, false);
     }
 
     /**
-     * Time: O(n)
+     * @param initialCapacity rounded up to the next power of two
+     * @param loadFactor table doubles once size exceeds capacity * loadFactor
+     * @param incrementalRehash if true, spread each resize across subsequent operations
+     */
+    public MyHashTable(int initialCapacity, float loadFactor, boolean incrementalRehash) {
+        if (initialCapacity < 0) throw new IllegalArgumentException("initialCapacity: " + initialCapacity +
+                " is negative");
+        if (loadFactor <= 0 || Float.isNaN(loadFactor)) throw new IllegalArgumentException("loadFactor: " +
+                loadFactor + " must be positive");
+        this.loadFactor = loadFactor;
+        this.incrementalRehash = incrementalRehash;
+        this.capacity = tableSizeFor(initialCapacity);
+        this.buckets = newTable(this.capacity);
+        this.threshold = this.computeThreshold(this.capacity);
+    }
+
+    /**
+     * Mix the high 16 bits of hashCode into the low 16 bits, since the mask only looks at the low bits.
+     */
+    static int spread(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Return the table that currently owns the bucket for hash. during an incremental migration this is the old
+     * table until that bucket has been moved.
+     */
+    private Entry<K, V>[] tableFor(int hash) {
+        if (this.oldBuckets != null && (hash & (this.oldBuckets.length - 1)) >= this.rehashIndex) {
+            return this.oldBuckets;
+        }
+        return this.buckets;
+    }
+
+    /**
+     * Time: O(logn)
      * Space: O(1)
-     * where n is the longest bucket chain size
+     * where n is the largest bucket size. the load factor keeps it O(1) on average, treeification bounds the worst case
      * @param key
      * @param value
      */
     public void put(K key, V value) {
-        int index = getBucketIndex(key);
-        Entry<K, V> head = this.buckets[index];
+        this.rehashStep();
+        int hash = spread(key);
+        Entry<K, V>[] table = this.tableFor(hash);
+        int index = hash & (table.length - 1);
+        Entry<K, V> head = table[index];
+        if (head instanceof TreeBin) {
+            if (((TreeBin<K, V>) head).put(hash, key, value)) {
+                this.size += 1;
+                if (this.size > this.threshold) this.grow();
+            }
+            return;
+        }
         // replace existing key
+        int chainLength = 0;
         while (head != null) {
-            if (head.key.equals(key)) {
+            if (head.hash == hash && head.key.equals(key)) {
                 head.value = value;
                 return;
             }
             head = head.next;
+            chainLength += 1;
         }
         // insert new entry at head
-        Entry<K, V> newNode = new Entry<>(key, value);
-        newNode.next = this.buckets[index];
-        this.buckets[index] = newNode;
+        Entry<K, V> newNode = new Entry<>(hash, key, value);
+        newNode.next = table[index];
+        table[index] = newNode;
         this.size += 1;
+        if (this.size > this.threshold) this.grow();
+        else if (chainLength + 1 >= TREEIFY_THRESHOLD) {
+            if (this.capacity < MIN_TREEIFY_CAPACITY) this.grow();
+            else this.treeifyBucket(table, index);
+        }
     }
 
     /**
-     * Time: O(n)
+     * Time: O(logn)
      * Space: O(1)
-     * where n is the longest bucket chain size
+     * where n is the largest bucket size
      * @param key
      * @return
      */
     public V get(K key) {
-        int index = getBucketIndex(key);
-        Entry<K, V> head = this.buckets[index];
+        this.rehashStep();
+        int hash = spread(key);
+        Entry<K, V>[] table = this.tableFor(hash);
+        Entry<K, V> head = table[hash & (table.length - 1)];
+        if (head instanceof TreeBin) {
+            TreeNode<K, V> node = ((TreeBin<K, V>) head).find(hash, key);
+            return node == null ? null : node.value;
+        }
 
         while (head != null) {
-            if (head.key.equals(key)) return head.value;
+            if (head.hash == hash && head.key.equals(key)) return head.value;
             head = head.next;
         }
         return null;
     }
 
     /**
-     * Time: O(n)
+     * Time: O(logn)
      * Space: O(1)
-     * where n is the longest bucket chain size
+     * where n is the largest bucket size
      * @param key
      * @return
      */
     public boolean remove(K key) {
-        int index = this.getBucketIndex(key);
-        Entry<K, V> head = this.buckets[index];
+        this.rehashStep();
+        int hash = spread(key);
+        Entry<K, V>[] table = this.tableFor(hash);
+        int index = hash & (table.length - 1);
+        Entry<K, V> head = table[index];
+        if (head instanceof TreeBin) {
+            TreeBin<K, V> bin = (TreeBin<K, V>) head;
+            if (!bin.remove(hash, key)) return false;
+            if (bin.size() <= UNTREEIFY_THRESHOLD) table[index] = bin.untreeify();
+            this.size -= 1;
+            return true;
+        }
         Entry<K, V> prev = null;
 
         while (head != null) {
-            if (head.key.equals(key)) {
+            if (head.hash == hash && head.key.equals(key)) {
                 if (prev != null) prev.next = head.next;
-                else this.buckets[index] = head.next;
+                else table[index] = head.next;
                 this.size -= 1;
                 return true;
             }
@@ -101,4 +212,126 @@ public class MyHashTable<K, V> {
     public int size() {
         return size;
     }
+
+    /**
+     * Return the number of buckets in the current table.
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Return true while an incremental migration still has old buckets left to move.
+     */
+    public boolean isRehashing() {
+        return this.oldBuckets != null;
+    }
+
+    /**
+     * Double the table. in stop-the-world mode every entry moves now, in incremental mode the migration is only
+     * started and rehashStep() does the rest. a grow requested while a migration is running is recorded in
+     * growPending and started by the rehashStep() that moves the last old bucket.
+     */
+    private void grow() {
+        if (this.capacity >= MAXIMUM_CAPACITY) {
+            this.threshold = Integer.MAX_VALUE;
+            return;
+        }
+        // a previous migration must be finished before the next one can start. finishing it here would move the
+        // whole old table in one operation, so wait for rehashStep to get there
+        if (this.oldBuckets != null) {
+            this.growPending = true;
+            return;
+        }
+
+        Entry<K, V>[] old = this.buckets;
+        this.capacity = old.length * 2;
+        this.buckets = newTable(this.capacity);
+        this.threshold = this.computeThreshold(this.capacity);
+        this.oldBuckets = old;
+        this.rehashIndex = 0;
+        if (!this.incrementalRehash) this.finishRehash();
+    }
+
+    /**
+     * Move up to REHASH_STEPS old buckets into the current table.
+     * Time: O(REHASH_STEPS * n)
+     * where n is the longest bucket chain size
+     */
+    private void rehashStep() {
+        if (this.oldBuckets == null) return;
+        int end = Math.min(this.rehashIndex + REHASH_STEPS, this.oldBuckets.length);
+        while (this.rehashIndex < end) {
+            this.transferBucket(this.rehashIndex);
+            this.rehashIndex += 1;
+        }
+        if (this.rehashIndex == this.oldBuckets.length) {
+            this.oldBuckets = null;
+            if (this.growPending) {
+                this.growPending = false;
+                this.grow();
+            }
+        }
+    }
+
+    private void finishRehash() {
+        while (this.rehashIndex < this.oldBuckets.length) {
+            this.transferBucket(this.rehashIndex);
+            this.rehashIndex += 1;
+        }
+        this.oldBuckets = null;
+    }
+
+    /**
+     * Relink every entry of one old bucket into the current table. chain entries are reused, a TreeBin is turned
+     * back into a chain first. since the table doubled, old bucket i only splits into new buckets i and
+     * i + oldCapacity, and either half that is still long enough is treeified again.
+     * @param index old bucket index
+     */
+    private void transferBucket(int index) {
+        Entry<K, V> entry = this.oldBuckets[index];
+        this.oldBuckets[index] = null;
+        if (entry instanceof TreeBin) entry = ((TreeBin<K, V>) entry).untreeify();
+        int mask = this.buckets.length - 1;
+        int lowCount = 0;
+        int highCount = 0;
+        while (entry != null) {
+            Entry<K, V> next = entry.next;
+            int newIndex = entry.hash & mask;
+            entry.next = this.buckets[newIndex];
+            this.buckets[newIndex] = entry;
+            if (newIndex == index) lowCount += 1;
+            else highCount += 1;
+            entry = next;
+        }
+        if (this.capacity < MIN_TREEIFY_CAPACITY) return;
+        if (lowCount >= TREEIFY_THRESHOLD) this.treeifyBucket(this.buckets, index);
+        if (highCount >= TREEIFY_THRESHOLD) this.treeifyBucket(this.buckets, index + this.oldBuckets.length);
+    }
+
+    /**
+     * Replace the chain at table[index] with a TreeBin.
+     */
+    private void treeifyBucket(Entry<K, V>[] table, int index) {
+        if (table[index] instanceof TreeBin) return;
+        table[index] = TreeBin.treeify(table[index]);
+    }
+
+    private int computeThreshold(int capacity) {
+        return (int) Math.min((long) (capacity * this.loadFactor), Integer.MAX_VALUE);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K, V> Entry<K, V>[] newTable(int capacity) {
+        return (Entry<K, V>[]) new Entry[capacity];
+    }
+
+    /**
+     * Smallest power of two >= n.
+     */
+    private static int tableSizeFor(int n) {
+        if (n <= 1) return 1;
+        if (n >= MAXIMUM_CAPACITY) return MAXIMUM_CAPACITY;
+        return Integer.highestOneBit(n - 1) << 1;
+    }
 }
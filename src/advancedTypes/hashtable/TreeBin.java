@@ -0,0 +1,292 @@
+package advancedTypes.hashtable;
+
+class TreeNode<K, V> extends Entry<K, V> {
+    public TreeNode<K, V> left;
+    public TreeNode<K, V> right;
+    public int height;
+
+    public TreeNode(int hash, K key, V value) {
+        super(hash, key, value);
+        this.height = 1;
+    }
+}
+
+/**
+ * TreeBin replaces a bucket chain in MyHashTable once the chain grows past TREEIFY_THRESHOLD. It sits in the bucket
+ * slot in place of the chain head and holds its entries in an AVL tree.
+ *
+ * Ordering:
+ * - by hash first
+ * - then by compareTo, if both keys are Comparable and of the same class
+ * - then by class name and System.identityHashCode, only so insertions have somewhere to go
+ *
+ * Lookup is O(logn) as long as colliding keys are distinguishable by hash or by compareTo, which covers String,
+ * Integer and friends. keys that share a hash and are not Comparable still have to be searched on both sides of a
+ * tie, just like in java.util.HashMap.
+ *
+ * The rotations follow AVLTree in advancedTypes.trees, but heights are cached on the nodes instead of recomputed, so
+ * each rebalance step is O(1).
+ */
+class TreeBin<K, V> extends Entry<K, V> {
+    // never compared against: callers check instanceof TreeBin before walking a bucket
+    private static final int TREEBIN_HASH = 0;
+
+    private TreeNode<K, V> root;
+    private int size;
+
+    private TreeBin() {
+        super(TREEBIN_HASH, null, null);
+    }
+
+    /**
+     * Build a tree out of a bucket chain.
+     * Time: O(nlogn)
+     * Space: O(n)
+     * @param head first entry of the chain
+     * @return
+     */
+    static <K, V> TreeBin<K, V> treeify(Entry<K, V> head) {
+        TreeBin<K, V> bin = new TreeBin<>();
+        for (Entry<K, V> entry = head; entry != null; entry = entry.next) {
+            bin.root = bin.insertRecursive(bin.root, new TreeNode<>(entry.hash, entry.key, entry.value));
+            bin.size += 1;
+        }
+        return bin;
+    }
+
+    /**
+     * Turn the tree back into a plain bucket chain, in key order.
+     * Time: O(n)
+     * Space: O(n)
+     * @return head of the new chain
+     */
+    Entry<K, V> untreeify() {
+        return this.chainRecursive(this.root, null);
+    }
+
+    /**
+     * Prepend the subtree's entries in order onto tail.
+     */
+    private Entry<K, V> chainRecursive(TreeNode<K, V> node, Entry<K, V> tail) {
+        if (node == null) return tail;
+        Entry<K, V> entry = new Entry<>(node.hash, node.key, node.value);
+        entry.next = this.chainRecursive(node.right, tail);
+        return this.chainRecursive(node.left, entry);
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Time: O(logn)
+     * Space: O(1)
+     * @param hash
+     * @param key
+     * @return the node holding key, or null
+     */
+    TreeNode<K, V> find(int hash, K key) {
+        return find(this.root, hash, key);
+    }
+
+    private static <K, V> TreeNode<K, V> find(TreeNode<K, V> node, int hash, K key) {
+        while (node != null) {
+            if (hash < node.hash) {
+                node = node.left;
+            } else if (hash > node.hash) {
+                node = node.right;
+            } else if (node.key.equals(key)) {
+                return node;
+            } else {
+                int cmp = compareComparables(key, node.key);
+                if (cmp < 0) {
+                    node = node.left;
+                } else if (cmp > 0) {
+                    node = node.right;
+                } else {
+                    // tie that compareTo cannot break: key may be on either side
+                    TreeNode<K, V> found = find(node.right, hash, key);
+                    if (found != null) return found;
+                    node = node.left;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Insert key or replace its value.
+     * Time: O(logn)
+     * Space: O(logn)
+     * @param hash
+     * @param key
+     * @param value
+     * @return true if a new node was added, false if an existing value was replaced
+     */
+    boolean put(int hash, K key, V value) {
+        TreeNode<K, V> existing = this.find(hash, key);
+        if (existing != null) {
+            existing.value = value;
+            return false;
+        }
+        this.root = this.insertRecursive(this.root, new TreeNode<>(hash, key, value));
+        this.size += 1;
+        return true;
+    }
+
+    /**
+     * Time: O(logn)
+     * Space: O(logn)
+     * @param hash
+     * @param key
+     * @return true if key was found and removed
+     */
+    boolean remove(int hash, K key) {
+        TreeNode<K, V> target = this.find(hash, key);
+        if (target == null) return false;
+        this.root = this.deleteRecursive(this.root, target);
+        this.size -= 1;
+        return true;
+    }
+
+    private TreeNode<K, V> insertRecursive(TreeNode<K, V> node, TreeNode<K, V> newNode) {
+        if (node == null) return newNode;
+        // ties go right
+        if (compare(newNode, node) < 0) {
+            node.left = this.insertRecursive(node.left, newNode);
+        } else {
+            node.right = this.insertRecursive(node.right, newNode);
+        }
+        return this.rebalance(node);
+    }
+
+    private TreeNode<K, V> deleteRecursive(TreeNode<K, V> node, TreeNode<K, V> target) {
+        if (node == null) return null;
+        if (node == target) {
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            // has both left and right children: put the in order successor in node's place
+            TreeNode<K, V> successor = this.getMinNode(node.right);
+            successor.right = this.removeMin(node.right);
+            successor.left = node.left;
+            node.left = null;
+            node.right = null;
+            return this.rebalance(successor);
+        }
+        int cmp = compare(target, node);
+        if (cmp == 0) {
+            // unbreakable tie, rotations may have moved target to either side
+            cmp = containsNode(node.left, target) ? -1 : 1;
+        }
+        if (cmp < 0) {
+            node.left = this.deleteRecursive(node.left, target);
+        } else {
+            node.right = this.deleteRecursive(node.right, target);
+        }
+        return this.rebalance(node);
+    }
+
+    private TreeNode<K, V> getMinNode(TreeNode<K, V> node) {
+        while (node.left != null) node = node.left;
+        return node;
+    }
+
+    private TreeNode<K, V> removeMin(TreeNode<K, V> node) {
+        if (node.left == null) return node.right;
+        node.left = this.removeMin(node.left);
+        return this.rebalance(node);
+    }
+
+    private static <K, V> boolean containsNode(TreeNode<K, V> node, TreeNode<K, V> target) {
+        if (node == null) return false;
+        return node == target || containsNode(node.left, target) || containsNode(node.right, target);
+    }
+
+    /**
+     * Update node's height and rotate it if either side became more than one level taller.
+     * @return the new root of this subtree
+     */
+    private TreeNode<K, V> rebalance(TreeNode<K, V> node) {
+        this.updateHeight(node);
+        int balanceFactor = this.getBalanceFactor(node);
+        // left heavy
+        if (balanceFactor > 1) {
+            // Left-Right case: left child is right heavy
+            if (this.getBalanceFactor(node.left) < 0) node.left = this.leftRotate(node.left);
+            return this.rightRotate(node);
+        }
+        // right heavy
+        if (balanceFactor < -1) {
+            // Right-Left case: right child is left heavy
+            if (this.getBalanceFactor(node.right) > 0) node.right = this.rightRotate(node.right);
+            return this.leftRotate(node);
+        }
+        return node;
+    }
+
+    /**
+     * node.right becomes the new root of this subtree.
+     */
+    private TreeNode<K, V> leftRotate(TreeNode<K, V> node) {
+        TreeNode<K, V> newRoot = node.right;
+        TreeNode<K, V> leftSubTree = newRoot.left;
+
+        newRoot.left = node;
+        node.right = leftSubTree;
+
+        this.updateHeight(node);
+        this.updateHeight(newRoot);
+        return newRoot;
+    }
+
+    /**
+     * node.left becomes the new root of this subtree.
+     */
+    private TreeNode<K, V> rightRotate(TreeNode<K, V> node) {
+        TreeNode<K, V> newRoot = node.left;
+        TreeNode<K, V> rightSubTree = newRoot.right;
+
+        newRoot.right = node;
+        node.left = rightSubTree;
+
+        this.updateHeight(node);
+        this.updateHeight(newRoot);
+        return newRoot;
+    }
+
+    private int height(TreeNode<K, V> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private void updateHeight(TreeNode<K, V> node) {
+        node.height = 1 + Math.max(this.height(node.left), this.height(node.right));
+    }
+
+    private int getBalanceFactor(TreeNode<K, V> node) {
+        if (node == null) return 0;
+        return this.height(node.left) - this.height(node.right);
+    }
+
+    /**
+     * Total order used for insertion. only returns 0 when two distinct keys tie on every tie breaker.
+     */
+    private static int compare(Entry<?, ?> a, Entry<?, ?> b) {
+        if (a.hash != b.hash) return a.hash < b.hash ? -1 : 1;
+        int cmp = compareComparables(a.key, b.key);
+        if (cmp != 0) return cmp;
+        cmp = a.key.getClass().getName().compareTo(b.key.getClass().getName());
+        if (cmp != 0) return cmp;
+        return Integer.compare(System.identityHashCode(a.key), System.identityHashCode(b.key));
+    }
+
+    /**
+     * @return a.compareTo(b) if both are Comparable of the same class, 0 otherwise
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareComparables(Object a, Object b) {
+        if (a instanceof Comparable && a.getClass() == b.getClass()) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return 0;
+    }
+}
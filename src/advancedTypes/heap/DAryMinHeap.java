@@ -0,0 +1,163 @@
+package advancedTypes.heap;
+
+import java.util.Arrays;
+
+/**
+ * DAryMinHeap is a min heap where every node has up to d children instead of 2.
+ *
+ * A wider node makes the tree shallower (log_d(n) levels), so insert/decreaseKey walk fewer levels and poll touches
+ * fewer cache lines: the d children of a node sit next to each other in the array. d = 4 or 8 usually beats a binary
+ * heap once the heap no longer fits in cache.
+ *
+ * Internal structure:
+ * - stored as an array heap
+ * - for a node at index i
+ *      - children = d * i + 1 ... d * i + d
+ *      - parent = (i - 1) / d
+ */
+public class DAryMinHeap {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final int d;
+    private int[] heap;
+    private int size;
+
+    public DAryMinHeap(int d) {
+        this(d, DEFAULT_CAPACITY);
+    }
+
+    public DAryMinHeap(int d, int capacity) {
+        if (d < 2) throw new IllegalArgumentException("d: " + d + " must be at least 2");
+        if (capacity < 1) throw new IllegalArgumentException("capacity: " + capacity + " must be positive");
+        this.d = d;
+        this.heap = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Build a heap out of values in one pass, sifting down every internal node from the last one up to the root.
+     * Time: O(n)
+     * Space: O(n)
+     * @param values copied, the caller's array is not modified
+     * @param d number of children per node
+     * @return
+     */
+    public static DAryMinHeap heapify(int[] values, int d) {
+        DAryMinHeap minHeap = new DAryMinHeap(d, Math.max(values.length, 1));
+        System.arraycopy(values, 0, minHeap.heap, 0, values.length);
+        minHeap.size = values.length;
+        for (int i = minHeap.parent(minHeap.size - 1); i >= 0; i--) {
+            minHeap.heapifyDown(i);
+        }
+        return minHeap;
+    }
+
+    /**
+     * Insert value into heap
+     * Time: O(log_d(n))
+     * @param val
+     */
+    public void insert(int val) {
+        if (this.size == this.heap.length) this.heap = Arrays.copyOf(this.heap, this.heap.length * 2);
+        this.heap[this.size] = val;
+        this.size += 1;
+        this.heapifyUp(this.size - 1);
+    }
+
+    /**
+     * Return the min value without removing
+     * @return
+     */
+    public int peek() {
+        if (this.size == 0) throw new RuntimeException("Heap is empty.");
+        return this.heap[0];
+    }
+
+    /**
+     * Remove and return the min value
+     * Time: O(d * log_d(n))
+     * @return
+     */
+    public int poll() {
+        if (this.size == 0) throw new RuntimeException("Heap is empty.");
+        int minValue = this.heap[0];
+        this.size -= 1;
+        if (this.size > 0) {
+            this.heap[0] = this.heap[this.size];
+            this.heapifyDown(0);
+        }
+        return minValue;
+    }
+
+    /**
+     * Remove the first occurrence of val.
+     * Time: O(n)
+     * finding val is a linear scan, use IndexedMinHeap when arbitrary removal is on the hot path
+     * @param val
+     * @return true if val was found and removed
+     */
+    public boolean remove(int val) {
+        int index = -1;
+        for (int i = 0; i < this.size; i++) {
+            if (this.heap[i] == val) {
+                index = i;
+                break;
+            }
+        }
+        if (index == -1) return false;
+        this.size -= 1;
+        if (index == this.size) return true;
+        this.heap[index] = this.heap[this.size];
+        // the moved element may belong above or below its new slot
+        this.heapifyDown(index);
+        this.heapifyUp(index);
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Move the element at index up until its parent is no larger. the element is held aside and written once, so
+     * each level costs one copy instead of a swap.
+     */
+    private void heapifyUp(int index) {
+        int val = this.heap[index];
+        while (index > 0) {
+            int parentIndex = this.parent(index);
+            if (val >= this.heap[parentIndex]) break;
+            this.heap[index] = this.heap[parentIndex];
+            index = parentIndex;
+        }
+        this.heap[index] = val;
+    }
+
+    /**
+     * Move the element at index down until none of its children is smaller.
+     */
+    private void heapifyDown(int index) {
+        int val = this.heap[index];
+        while (true) {
+            int firstChild = this.d * index + 1;
+            if (firstChild >= this.size) break;
+            int lastChild = Math.min(firstChild + this.d, this.size);
+            int smallestIndex = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (this.heap[child] < this.heap[smallestIndex]) smallestIndex = child;
+            }
+            if (this.heap[smallestIndex] >= val) break;
+            this.heap[index] = this.heap[smallestIndex];
+            index = smallestIndex;
+        }
+        this.heap[index] = val;
+    }
+
+    private int parent(int index) {
+        return (index - 1) / this.d;
+    }
+}
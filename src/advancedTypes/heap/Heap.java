@@ -0,0 +1,216 @@
+package advancedTypes.heap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Heap is a generic binary heap ordered by a Comparator. the root is always the smallest element according to that
+ * comparator, so Comparator.reverseOrder() turns it into a max heap.
+ *
+ * Internal structure:
+ * - stored as an array heap
+ * - for a node at index i
+ *      - left = 2 * i + 1
+ *      - right = 2 * i + 2
+ *      - parent = (i - 1) / 2
+ *
+ * Batch operations:
+ * - pushAll appends a batch and, when the batch is at least as large as the heap, rebuilds the heap bottom-up in
+ *   O(n + k) instead of paying O(logn) per element
+ * - popN removes with bottom-up (Floyd) sifting: the hole left at the root is walked down to a leaf along the smaller
+ *   child, then the last element is sifted up from there. that takes about half the comparisons of a classic
+ *   sift-down, since the last element almost always belongs near the bottom
+ */
+public class Heap<T> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final Comparator<? super T> comparator;
+    private Object[] heap;
+    private int size;
+
+    public Heap(Comparator<? super T> comparator) {
+        this(comparator, DEFAULT_CAPACITY);
+    }
+
+    public Heap(Comparator<? super T> comparator, int capacity) {
+        if (comparator == null) throw new IllegalArgumentException("comparator must not be null");
+        if (capacity < 1) throw new IllegalArgumentException("capacity: " + capacity + " must be positive");
+        this.comparator = comparator;
+        this.heap = new Object[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Insert item into heap
+     * Time: O(logn)
+     * @param item
+     */
+    public void push(T item) {
+        this.ensureCapacity(this.size + 1);
+        this.heap[this.size] = item;
+        this.size += 1;
+        this.heapifyUp(this.size - 1);
+    }
+
+    /**
+     * Insert every item of the batch.
+     * Time: O(min(k logn, n + k))
+     * where k is the batch size
+     * @param items
+     */
+    public void pushAll(Collection<? extends T> items) {
+        int batchSize = items.size();
+        this.ensureCapacity(this.size + batchSize);
+        // for a small batch, sifting each item up is cheaper than touching the whole heap
+        if (batchSize < this.size) {
+            for (T item : items) {
+                this.heap[this.size] = item;
+                this.size += 1;
+                this.heapifyUp(this.size - 1);
+            }
+            return;
+        }
+        for (T item : items) {
+            this.heap[this.size] = item;
+            this.size += 1;
+        }
+        this.heapify();
+    }
+
+    /**
+     * Return the smallest item without removing it
+     * @return
+     */
+    public T peek() {
+        if (this.size == 0) throw new RuntimeException("Heap is empty.");
+        return this.elementAt(0);
+    }
+
+    /**
+     * Remove and return the smallest item
+     * Time: O(logn)
+     * @return
+     */
+    public T pop() {
+        if (this.size == 0) throw new RuntimeException("Heap is empty.");
+        T min = this.elementAt(0);
+        this.removeRoot();
+        return min;
+    }
+
+    /**
+     * Remove and return up to n smallest items, smallest first.
+     * Time: O(n logN)
+     * where N is the heap size. if n covers the whole heap, the items are sorted in place instead.
+     * @param n
+     * @return
+     */
+    public List<T> popN(int n) {
+        if (n < 0) throw new IllegalArgumentException("n: " + n + " is negative");
+        int count = Math.min(n, this.size);
+        List<T> result = new ArrayList<>(count);
+        if (count == this.size) {
+            // draining everything: one sort is cheaper than size sift-downs
+            Object[] items = Arrays.copyOf(this.heap, this.size);
+            this.clear();
+            Arrays.sort(items, (a, b) -> this.comparator.compare(cast(a), cast(b)));
+            for (Object item : items) {
+                result.add(cast(item));
+            }
+            return result;
+        }
+        for (int i = 0; i < count; i++) {
+            result.add(this.elementAt(0));
+            this.removeRoot();
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public void clear() {
+        Arrays.fill(this.heap, 0, this.size, null);
+        this.size = 0;
+    }
+
+    /**
+     * Remove the root using bottom-up sifting.
+     */
+    private void removeRoot() {
+        this.size -= 1;
+        Object last = this.heap[this.size];
+        this.heap[this.size] = null;
+        if (this.size == 0) return;
+        // walk the hole down to a leaf, always promoting the smaller child
+        int hole = 0;
+        int child;
+        while ((child = 2 * hole + 1) < this.size) {
+            if (child + 1 < this.size && this.compareAt(child + 1, child) < 0) child += 1;
+            this.heap[hole] = this.heap[child];
+            hole = child;
+        }
+        // drop the last element into the hole and let it float back up
+        this.heap[hole] = last;
+        this.heapifyUp(hole);
+    }
+
+    /**
+     * Restore the heap property over the whole array, bottom-up.
+     * Time: O(n)
+     */
+    private void heapify() {
+        for (int i = (this.size >>> 1) - 1; i >= 0; i--) {
+            this.heapifyDown(i);
+        }
+    }
+
+    private void heapifyUp(int index) {
+        Object item = this.heap[index];
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            if (this.comparator.compare(cast(item), this.elementAt(parentIndex)) >= 0) break;
+            this.heap[index] = this.heap[parentIndex];
+            index = parentIndex;
+        }
+        this.heap[index] = item;
+    }
+
+    private void heapifyDown(int index) {
+        Object item = this.heap[index];
+        int child;
+        while ((child = 2 * index + 1) < this.size) {
+            if (child + 1 < this.size && this.compareAt(child + 1, child) < 0) child += 1;
+            if (this.comparator.compare(this.elementAt(child), cast(item)) >= 0) break;
+            this.heap[index] = this.heap[child];
+            index = child;
+        }
+        this.heap[index] = item;
+    }
+
+    private int compareAt(int i, int j) {
+        return this.comparator.compare(this.elementAt(i), this.elementAt(j));
+    }
+
+    private T elementAt(int index) {
+        return cast(this.heap[index]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object item) {
+        return (T) item;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= this.heap.length) return;
+        this.heap = Arrays.copyOf(this.heap, Math.max(minCapacity, this.heap.length * 2));
+    }
+}
@@ -0,0 +1,240 @@
+package advancedTypes.heap;
+
+import java.util.Arrays;
+
+/**
+ * IndexedMinHeap is a d-ary min heap over a fixed range of ids [0, capacity), where each id carries an int key.
+ *
+ * Besides the heap array it keeps a position map from id to heap slot, so an entry can be found without a scan.
+ * That makes decreaseKey/increaseKey/remove/contains O(log n), which is what Dijkstra/Prim style schedulers need.
+ *
+ * Internal structure:
+ * - heap[pos] = id stored at heap slot pos
+ * - position[id] = heap slot of id, or -1 if id is not in the heap
+ * - keys[id] = current key of id
+ * - for a slot at index i, children = d * i + 1 ... d * i + d, parent = (i - 1) / d
+ */
+public class IndexedMinHeap {
+    private final int d;
+    private final int[] heap;
+    private final int[] position;
+    private final int[] keys;
+    private int size;
+
+    /**
+     * Binary indexed heap.
+     * @param capacity ids range over [0, capacity)
+     */
+    public IndexedMinHeap(int capacity) {
+        this(capacity, 2);
+    }
+
+    /**
+     * @param capacity ids range over [0, capacity)
+     * @param d number of children per node
+     */
+    public IndexedMinHeap(int capacity, int d) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity: " + capacity + " is negative");
+        if (d < 2) throw new IllegalArgumentException("d: " + d + " must be at least 2");
+        this.d = d;
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new int[capacity];
+        Arrays.fill(this.position, -1);
+        this.size = 0;
+    }
+
+    /**
+     * Build a heap where id i has key keys[i], for every i, in one bottom-up pass.
+     * Time: O(n)
+     * Space: O(n)
+     * @param keys
+     * @param d number of children per node
+     * @return
+     */
+    public static IndexedMinHeap heapify(int[] keys, int d) {
+        IndexedMinHeap minHeap = new IndexedMinHeap(keys.length, d);
+        System.arraycopy(keys, 0, minHeap.keys, 0, keys.length);
+        for (int id = 0; id < keys.length; id++) {
+            minHeap.heap[id] = id;
+            minHeap.position[id] = id;
+        }
+        minHeap.size = keys.length;
+        if (minHeap.size < 2) return minHeap;
+        for (int i = minHeap.parent(minHeap.size - 1); i >= 0; i--) {
+            minHeap.heapifyDown(i);
+        }
+        return minHeap;
+    }
+
+    /**
+     * Insert id with the given key.
+     * Time: O(log n)
+     * @param id
+     * @param key
+     */
+    public void insert(int id, int key) {
+        this.checkId(id);
+        if (this.contains(id)) throw new IllegalArgumentException("id: " + id + " is already in the heap");
+        this.keys[id] = key;
+        this.heap[this.size] = id;
+        this.position[id] = this.size;
+        this.size += 1;
+        this.heapifyUp(this.size - 1);
+    }
+
+    /**
+     * Time: O(1)
+     */
+    public boolean contains(int id) {
+        this.checkId(id);
+        return this.position[id] != -1;
+    }
+
+    /**
+     * Return the key currently associated with id.
+     */
+    public int keyOf(int id) {
+        this.checkPresent(id);
+        return this.keys[id];
+    }
+
+    /**
+     * Return the id with the smallest key without removing it.
+     */
+    public int peekId() {
+        if (this.size == 0) throw new RuntimeException("Heap is empty.");
+        return this.heap[0];
+    }
+
+    /**
+     * Return the smallest key without removing it.
+     */
+    public int peekKey() {
+        return this.keys[this.peekId()];
+    }
+
+    /**
+     * Remove and return the id with the smallest key.
+     * Time: O(d * log_d(n))
+     * @return
+     */
+    public int poll() {
+        int minId = this.peekId();
+        this.removeAt(0);
+        return minId;
+    }
+
+    /**
+     * Lower the key of id.
+     * Time: O(log n)
+     * @param id
+     * @param key must not be greater than the current key
+     */
+    public void decreaseKey(int id, int key) {
+        this.checkPresent(id);
+        if (key > this.keys[id]) throw new IllegalArgumentException("key: " + key + " is greater than current key: "
+                + this.keys[id]);
+        this.keys[id] = key;
+        this.heapifyUp(this.position[id]);
+    }
+
+    /**
+     * Raise the key of id.
+     * Time: O(d * log_d(n))
+     * @param id
+     * @param key must not be less than the current key
+     */
+    public void increaseKey(int id, int key) {
+        this.checkPresent(id);
+        if (key < this.keys[id]) throw new IllegalArgumentException("key: " + key + " is less than current key: "
+                + this.keys[id]);
+        this.keys[id] = key;
+        this.heapifyDown(this.position[id]);
+    }
+
+    /**
+     * Remove id from the heap.
+     * Time: O(d * log_d(n))
+     * @param id
+     * @return true if id was in the heap
+     */
+    public boolean remove(int id) {
+        if (!this.contains(id)) return false;
+        this.removeAt(this.position[id]);
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Remove the entry at heap slot pos by moving the last entry into its place.
+     */
+    private void removeAt(int pos) {
+        int removedId = this.heap[pos];
+        this.size -= 1;
+        this.position[removedId] = -1;
+        if (pos == this.size) return;
+        int lastId = this.heap[this.size];
+        this.heap[pos] = lastId;
+        this.position[lastId] = pos;
+        // the moved entry may belong above or below its new slot
+        this.heapifyDown(pos);
+        this.heapifyUp(this.position[lastId]);
+    }
+
+    private void heapifyUp(int pos) {
+        int id = this.heap[pos];
+        int key = this.keys[id];
+        while (pos > 0) {
+            int parentPos = this.parent(pos);
+            int parentId = this.heap[parentPos];
+            if (key >= this.keys[parentId]) break;
+            this.heap[pos] = parentId;
+            this.position[parentId] = pos;
+            pos = parentPos;
+        }
+        this.heap[pos] = id;
+        this.position[id] = pos;
+    }
+
+    private void heapifyDown(int pos) {
+        int id = this.heap[pos];
+        int key = this.keys[id];
+        while (true) {
+            int firstChild = this.d * pos + 1;
+            if (firstChild >= this.size) break;
+            int lastChild = Math.min(firstChild + this.d, this.size);
+            int smallestPos = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (this.keys[this.heap[child]] < this.keys[this.heap[smallestPos]]) smallestPos = child;
+            }
+            int smallestId = this.heap[smallestPos];
+            if (this.keys[smallestId] >= key) break;
+            this.heap[pos] = smallestId;
+            this.position[smallestId] = pos;
+            pos = smallestPos;
+        }
+        this.heap[pos] = id;
+        this.position[id] = pos;
+    }
+
+    private int parent(int pos) {
+        return (pos - 1) / this.d;
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= this.position.length) throw new IndexOutOfBoundsException("id: " + id + " is out of " +
+                "bounds");
+    }
+
+    private void checkPresent(int id) {
+        if (!this.contains(id)) throw new IllegalArgumentException("id: " + id + " is not in the heap");
+    }
+}
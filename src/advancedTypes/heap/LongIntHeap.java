@@ -0,0 +1,193 @@
+package advancedTypes.heap;
+
+import java.util.Arrays;
+
+/**
+ * LongIntHeap is a binary min heap of (long key, int value) pairs, the primitive specialization of Heap.
+ *
+ * Keys and values live in two parallel arrays, so nothing is boxed and no entry object is allocated per push. the
+ * value is typically an index into the caller's own arrays (an id, a slot number, ...).
+ *
+ * Internal structure:
+ * - keys[i] and values[i] hold one entry
+ * - for a node at index i, left = 2 * i + 1, right = 2 * i + 2, parent = (i - 1) / 2
+ *
+ * pushAll and popN batch the work the same way Heap does: a large batch is pushed with one bottom-up rebuild, and
+ * pops use bottom-up (Floyd) sifting.
+ */
+public class LongIntHeap {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntHeap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongIntHeap(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity: " + capacity + " must be positive");
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Insert a pair into the heap
+     * Time: O(logn)
+     * @param key
+     * @param value
+     */
+    public void push(long key, int value) {
+        this.ensureCapacity(this.size + 1);
+        this.keys[this.size] = key;
+        this.values[this.size] = value;
+        this.size += 1;
+        this.heapifyUp(this.size - 1);
+    }
+
+    /**
+     * Insert keys[i], values[i] for every i.
+     * Time: O(min(k logn, n + k))
+     * where k is the batch size
+     * @param keys
+     * @param values same length as keys
+     */
+    public void pushAll(long[] keys, int[] values) {
+        if (keys.length != values.length) throw new IllegalArgumentException("keys and values differ in length");
+        int batchSize = keys.length;
+        this.ensureCapacity(this.size + batchSize);
+        if (batchSize < this.size) {
+            for (int i = 0; i < batchSize; i++) {
+                this.push(keys[i], values[i]);
+            }
+            return;
+        }
+        System.arraycopy(keys, 0, this.keys, this.size, batchSize);
+        System.arraycopy(values, 0, this.values, this.size, batchSize);
+        this.size += batchSize;
+        for (int i = (this.size >>> 1) - 1; i >= 0; i--) {
+            this.heapifyDown(i);
+        }
+    }
+
+    /**
+     * Return the smallest key without removing it
+     */
+    public long peekKey() {
+        if (this.size == 0) throw new RuntimeException("Heap is empty.");
+        return this.keys[0];
+    }
+
+    /**
+     * Return the value paired with the smallest key without removing it
+     */
+    public int peekValue() {
+        if (this.size == 0) throw new RuntimeException("Heap is empty.");
+        return this.values[0];
+    }
+
+    /**
+     * Remove the smallest pair and return its value. call peekKey first if the key is needed too.
+     * Time: O(logn)
+     * @return
+     */
+    public int pop() {
+        if (this.size == 0) throw new RuntimeException("Heap is empty.");
+        int value = this.values[0];
+        this.removeRoot();
+        return value;
+    }
+
+    /**
+     * Remove up to n smallest pairs into the output arrays, smallest first. nothing is allocated.
+     * Time: O(n logN)
+     * where N is the heap size
+     * @param n
+     * @param outKeys receives the keys, must hold at least min(n, size()) entries
+     * @param outValues receives the values, must hold at least min(n, size()) entries
+     * @return number of pairs removed
+     */
+    public int popN(int n, long[] outKeys, int[] outValues) {
+        if (n < 0) throw new IllegalArgumentException("n: " + n + " is negative");
+        int count = Math.min(n, this.size);
+        for (int i = 0; i < count; i++) {
+            outKeys[i] = this.keys[0];
+            outValues[i] = this.values[0];
+            this.removeRoot();
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Remove the root using bottom-up sifting.
+     */
+    private void removeRoot() {
+        this.size -= 1;
+        if (this.size == 0) return;
+        long lastKey = this.keys[this.size];
+        int lastValue = this.values[this.size];
+        // walk the hole down to a leaf, always promoting the smaller child
+        int hole = 0;
+        int child;
+        while ((child = 2 * hole + 1) < this.size) {
+            if (child + 1 < this.size && this.keys[child + 1] < this.keys[child]) child += 1;
+            this.keys[hole] = this.keys[child];
+            this.values[hole] = this.values[child];
+            hole = child;
+        }
+        // drop the last pair into the hole and let it float back up
+        this.keys[hole] = lastKey;
+        this.values[hole] = lastValue;
+        this.heapifyUp(hole);
+    }
+
+    private void heapifyUp(int index) {
+        long key = this.keys[index];
+        int value = this.values[index];
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            if (key >= this.keys[parentIndex]) break;
+            this.keys[index] = this.keys[parentIndex];
+            this.values[index] = this.values[parentIndex];
+            index = parentIndex;
+        }
+        this.keys[index] = key;
+        this.values[index] = value;
+    }
+
+    private void heapifyDown(int index) {
+        long key = this.keys[index];
+        int value = this.values[index];
+        int child;
+        while ((child = 2 * index + 1) < this.size) {
+            if (child + 1 < this.size && this.keys[child + 1] < this.keys[child]) child += 1;
+            if (this.keys[child] >= key) break;
+            this.keys[index] = this.keys[child];
+            this.values[index] = this.values[child];
+            index = child;
+        }
+        this.keys[index] = key;
+        this.values[index] = value;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= this.keys.length) return;
+        int newCapacity = Math.max(minCapacity, this.keys.length * 2);
+        this.keys = Arrays.copyOf(this.keys, newCapacity);
+        this.values = Arrays.copyOf(this.values, newCapacity);
+    }
+}
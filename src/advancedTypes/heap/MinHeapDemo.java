@@ -1,6 +1,7 @@
 package advancedTypes.heap;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -176,6 +177,28 @@ class MinHeap {
 
 public class MinHeapDemo {
     public static void main(String[] args) {
-
+        DAryMinHeap dAryHeap = DAryMinHeap.heapify(new int[]{9, 4, 7, 1, 8, 2, 6}, 4);
+        dAryHeap.insert(0);
+        System.out.println(dAryHeap.poll()); // 0
+        System.out.println(dAryHeap.poll()); // 1
+        System.out.println(dAryHeap.size()); // 6
+
+        // ids 0..4 with their distances
+        IndexedMinHeap indexedHeap = IndexedMinHeap.heapify(new int[]{50, 40, 30, 20, 10}, 4);
+        indexedHeap.decreaseKey(0, 5);
+        indexedHeap.remove(4);
+        System.out.println(indexedHeap.peekId() + " " + indexedHeap.peekKey()); // 0 5
+        System.out.println(indexedHeap.contains(4)); // false
+
+        Heap<String> maxHeap = new Heap<>(Comparator.reverseOrder());
+        maxHeap.pushAll(List.of("pear", "apple", "quince", "fig"));
+        System.out.println(maxHeap.popN(2)); // [quince, pear]
+
+        LongIntHeap deadlines = new LongIntHeap();
+        deadlines.pushAll(new long[]{300L, 100L, 200L}, new int[]{3, 1, 2});
+        long[] keys = new long[2];
+        int[] taskIds = new int[2];
+        int popped = deadlines.popN(2, keys, taskIds);
+        System.out.println(popped + " " + taskIds[0] + " " + taskIds[1]); // 2 1 2
     }
 }
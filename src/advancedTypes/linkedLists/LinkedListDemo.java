@@ -12,5 +12,16 @@ public class LinkedListDemo {
         dll.printForward();
         dll.reverse();
         dll.printForward();
+
+        UnrolledDeque<String> deque = new UnrolledDeque<>(4);
+        deque.addLast("wednesday");
+        deque.addLast("thursday");
+        deque.addFirst("tuesday");
+        deque.addFirst("monday");
+        deque.addLast("friday");
+        System.out.println(deque);
+        deque.reverse();
+        System.out.println(deque.removeFirst() + " " + deque.removeLast()); // friday monday
+        System.out.println(deque);
     }
 }
@@ -0,0 +1,295 @@
+package advancedTypes.linkedLists;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LockFreeSkipListMap is a lock-free sorted map built on the same tower-of-linked-lists layout as SkipList, after
+ * the lock-free skip list of Herlihy and Shavit (The Art of Multiprocessor Programming, ch. 14).
+ *
+ * Compared to SkipList:
+ * - keys are any Comparable type and every node carries a value
+ * - each forward pointer is an AtomicMarkableReference, so links are changed with CAS instead of plain writes
+ * - removal is three-phase: remove first CASes the node's value to null, which is its linearization point and
+ *   makes it the only remover; it then marks the forward pointers (top level down, bottom level last), and the node
+ *   is physically unlinked by whichever thread next walks past it in find()
+ * - put on an existing key CASes the value from a non-null old value, so a put and a remove racing on one node never
+ *   both succeed: either the put lands first and remove returns the new value, or remove wins and put retries
+ * - a node is in the map exactly when it is reachable at level 0 with an unmarked level-0 pointer
+ * - levels come from ThreadLocalRandom, so writers do not contend on a shared Random
+ *
+ * get/containsKey never write and never retry. put/remove only retry when a CAS loses a race. rangeSearch returns a
+ * weakly consistent iterator: it never throws ConcurrentModificationException, reflects every entry that stays in
+ * the map for the whole scan, and may or may not reflect concurrent puts and removes.
+ */
+public class LockFreeSkipListMap<K extends Comparable<? super K>, V> {
+    private static final int MAX_LEVEL = 32;
+
+    private static final class Node<K, V> {
+        final K key;
+        // null once a remove has claimed the node
+        final AtomicReference<V> value;
+        final AtomicMarkableReference<Node<K, V>>[] forward;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Node(K key, V value, int level) {
+            this.key = key;
+            this.value = new AtomicReference<>(value);
+            this.forward = (AtomicMarkableReference<Node<K, V>>[]) new AtomicMarkableReference[level];
+        }
+
+        int level() {
+            return this.forward.length;
+        }
+    }
+
+    // sentinels: head sorts before every key, tail after every key
+    private final Node<K, V> head = new Node<>(null, null, MAX_LEVEL);
+    private final Node<K, V> tail = new Node<>(null, null, MAX_LEVEL);
+    private final LongAdder size = new LongAdder();
+
+    public LockFreeSkipListMap() {
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            this.tail.forward[i] = new AtomicMarkableReference<>(null, false);
+            this.head.forward[i] = new AtomicMarkableReference<>(this.tail, false);
+        }
+    }
+
+    /**
+     * Number of entries. exact when no writer is running, an estimate otherwise.
+     */
+    public int size() {
+        return (int) Math.min(this.size.sum(), Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * Geometric level with p = 0.5, capped at MAX_LEVEL: one plus the number of trailing zero bits of a random int.
+     */
+    private static int randomLevel() {
+        int bits = ThreadLocalRandom.current().nextInt() | (1 << (MAX_LEVEL - 1));
+        return Integer.numberOfTrailingZeros(bits) + 1;
+    }
+
+    /**
+     * Compare key against a node, treating tail as +infinity.
+     */
+    private int compare(K key, Node<K, V> node) {
+        if (node == this.tail) return -1;
+        return key.compareTo(node.key);
+    }
+
+    /**
+     * Fill preds/succs with the last node < key and the first node >= key on every level, unlinking any marked
+     * node on the way.
+     * @return true if an unmarked node with key is present at level 0
+     */
+    private boolean find(K key, Node<K, V>[] preds, Node<K, V>[] succs) {
+        boolean[] marked = {false};
+        retry:
+        while (true) {
+            Node<K, V> pred = this.head;
+            for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+                Node<K, V> curr = pred.forward[level].getReference();
+                while (true) {
+                    Node<K, V> succ = curr.forward[level].get(marked);
+                    // help finish the removal of any logically deleted node
+                    while (marked[0]) {
+                        if (!pred.forward[level].compareAndSet(curr, succ, false, false)) continue retry;
+                        curr = succ;
+                        succ = curr.forward[level].get(marked);
+                    }
+                    if (this.compare(key, curr) > 0) {
+                        pred = curr;
+                        curr = succ;
+                    } else {
+                        break;
+                    }
+                }
+                preds[level] = pred;
+                succs[level] = curr;
+            }
+            return this.compare(key, succs[0]) == 0;
+        }
+    }
+
+    /**
+     * Insert key or replace its value.
+     * Time: O(logn) expected
+     * @param key
+     * @param value
+     * @return the previous value, or null if key was absent
+     */
+    public V put(K key, V value) {
+        if (key == null || value == null) throw new NullPointerException("key and value must not be null");
+        Node<K, V>[] preds = newNodeArray();
+        Node<K, V>[] succs = newNodeArray();
+        int topLevel = randomLevel();
+        while (true) {
+            if (this.find(key, preds, succs)) {
+                Node<K, V> existing = succs[0];
+                // only replace a live value. a node claimed by remove is retried until it is unlinked
+                V old = existing.value.get();
+                if (old != null && existing.value.compareAndSet(old, value)) return old;
+                continue;
+            }
+            Node<K, V> newNode = new Node<>(key, value, topLevel);
+            for (int level = 0; level < topLevel; level++) {
+                newNode.forward[level] = new AtomicMarkableReference<>(succs[level], false);
+            }
+            // linking at level 0 is the linearization point
+            if (!preds[0].forward[0].compareAndSet(succs[0], newNode, false, false)) continue;
+            this.size.increment();
+            // the upper levels are only shortcuts, link them one by one, re-finding on contention
+            for (int level = 1; level < topLevel; level++) {
+                while (true) {
+                    if (preds[level].forward[level].compareAndSet(succs[level], newNode, false, false)) break;
+                    this.find(key, preds, succs);
+                    // the node was removed while we were linking it, stop building its tower
+                    if (succs[0] != newNode) return null;
+                    Node<K, V> succ = newNode.forward[level].getReference();
+                    if (!newNode.forward[level].compareAndSet(succ, succs[level], false, false)) return null;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Wait-free lookup: never writes and never restarts.
+     * Time: O(logn) expected
+     * @param key
+     * @return the value mapped to key, or null
+     */
+    public V get(K key) {
+        boolean[] marked = {false};
+        Node<K, V> pred = this.head;
+        Node<K, V> curr = null;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            curr = pred.forward[level].getReference();
+            while (true) {
+                Node<K, V> succ = curr.forward[level].get(marked);
+                // step over logically deleted nodes without unlinking them
+                while (marked[0]) {
+                    curr = succ;
+                    succ = curr.forward[level].get(marked);
+                }
+                if (this.compare(key, curr) > 0) {
+                    pred = curr;
+                    curr = succ;
+                } else {
+                    break;
+                }
+            }
+        }
+        if (this.compare(key, curr) != 0) return null;
+        return curr.value.get();
+    }
+
+    public boolean containsKey(K key) {
+        return this.get(key) != null;
+    }
+
+    /**
+     * Time: O(logn) expected
+     * @param key
+     * @return the removed value, or null if key was absent
+     */
+    public V remove(K key) {
+        Node<K, V>[] preds = newNodeArray();
+        Node<K, V>[] succs = newNodeArray();
+        if (!this.find(key, preds, succs)) return null;
+        Node<K, V> target = succs[0];
+        // claiming the value is the linearization point, and only one remover can win it
+        V value;
+        do {
+            value = target.value.get();
+            if (value == null) return null;
+        } while (!target.value.compareAndSet(value, null));
+        this.size.decrement();
+        boolean[] marked = {false};
+        // mark top down, level 0 last, so no new link to target can be built above level 0
+        for (int level = target.level() - 1; level >= 0; level--) {
+            Node<K, V> succ = target.forward[level].get(marked);
+            while (!marked[0]) {
+                target.forward[level].attemptMark(succ, true);
+                succ = target.forward[level].get(marked);
+            }
+        }
+        // unlink physically
+        this.find(key, preds, succs);
+        return value;
+    }
+
+    /**
+     * Iterate over the entries with L <= key <= R in ascending order, lazily. weakly consistent, see class comment.
+     * Time: O(logn + k)
+     * where k is the number of entries visited
+     * @param L lower bound key
+     * @param R upper bound key
+     * @return
+     */
+    public Iterator<Map.Entry<K, V>> rangeSearch(K L, K R) {
+        // descend to the last node < L
+        Node<K, V> pred = this.head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node<K, V> curr = pred.forward[level].getReference();
+            while (curr != this.tail && curr.key.compareTo(L) < 0) {
+                pred = curr;
+                curr = curr.forward[level].getReference();
+            }
+        }
+        Node<K, V> start = pred.forward[0].getReference();
+        return new Iterator<Map.Entry<K, V>>() {
+            // value of next, read when next was found live
+            private V nextValue;
+            private Node<K, V> next = this.advance(start);
+
+            /**
+             * First live node at or after node within range, or null.
+             */
+            private Node<K, V> advance(Node<K, V> node) {
+                while (node != tail) {
+                    if (node.key.compareTo(R) > 0) return null;
+                    if (node.key.compareTo(L) >= 0) {
+                        V value = node.value.get();
+                        if (value != null) {
+                            this.nextValue = value;
+                            return node;
+                        }
+                    }
+                    node = node.forward[0].getReference();
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return this.next != null;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (this.next == null) throw new NoSuchElementException();
+                Node<K, V> node = this.next;
+                V value = this.nextValue;
+                this.next = this.advance(node.forward[0].getReference());
+                return new AbstractMap.SimpleImmutableEntry<>(node.key, value);
+            }
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K, V> Node<K, V>[] newNodeArray() {
+        return (Node<K, V>[]) new Node[MAX_LEVEL];
+    }
+}
@@ -0,0 +1,93 @@
+package advancedTypes.linkedLists;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Compares building and range-scanning a SkipList against java.util.TreeMap.
+ *
+ * - build: SkipList.bulkLoad vs N SkipList.add calls vs N TreeMap.put calls
+ * - scan: SkipList.Cursor vs SkipList.rangeSearch vs iterating TreeMap.subMap, over RANGES random ranges of
+ *   RANGE_WIDTH keys each. every scan sums the keys so the JIT cannot drop the loop.
+ *
+ * This is a plain main() harness, not JMH. run it with a large fixed heap (e.g. -Xms4g -Xmx4g) and treat the numbers
+ * as relative.
+ */
+public class SkipListBenchmark {
+    private static final int N = 2_000_000;
+    private static final int RANGES = 2_000;
+    private static final int RANGE_WIDTH = 10_000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        // even keys, so half the range bounds fall between keys
+        int[] sorted = new int[N];
+        for (int i = 0; i < N; i++) {
+            sorted[i] = i * 2;
+        }
+        Random random = new Random(42);
+        int[] lows = new int[RANGES];
+        for (int i = 0; i < RANGES; i++) {
+            lows[i] = random.nextInt(2 * N - RANGE_WIDTH);
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            System.out.println("=== round " + round + (round == 0 ? " (warmup)" : "") + " ===");
+
+            long start = System.nanoTime();
+            SkipList loaded = new SkipList();
+            loaded.bulkLoad(sorted);
+            report("SkipList.bulkLoad", start);
+
+            start = System.nanoTime();
+            SkipList added = new SkipList();
+            for (int value : sorted) {
+                added.add(value);
+            }
+            report("SkipList.add x N", start);
+
+            start = System.nanoTime();
+            TreeMap<Integer, Integer> treeMap = new TreeMap<>();
+            for (int value : sorted) {
+                treeMap.put(value, value);
+            }
+            report("TreeMap.put x N", start);
+
+            long checksum = 0;
+            start = System.nanoTime();
+            SkipList.Cursor cursor = loaded.cursor();
+            for (int low : lows) {
+                cursor.seek(low, low + RANGE_WIDTH);
+                while (cursor.hasNext()) {
+                    checksum += cursor.next();
+                }
+            }
+            report("SkipList.Cursor scan", start);
+
+            start = System.nanoTime();
+            for (int low : lows) {
+                for (int value : loaded.rangeSearch(low, low + RANGE_WIDTH)) {
+                    checksum -= value;
+                }
+            }
+            report("SkipList.rangeSearch scan", start);
+
+            start = System.nanoTime();
+            for (int low : lows) {
+                NavigableMap<Integer, Integer> range = treeMap.subMap(low, true, low + RANGE_WIDTH, true);
+                for (Map.Entry<Integer, Integer> entry : range.entrySet()) {
+                    checksum += entry.getKey();
+                }
+            }
+            report("TreeMap.subMap scan", start);
+            // cursor + subMap - rangeSearch: should equal one pass worth of sums
+            System.out.println("checksum: " + checksum);
+        }
+    }
+
+    private static void report(String label, long startNanos) {
+        System.out.printf("%-28s %8d ms%n", label, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+}
@@ -1,7 +1,10 @@
 package advancedTypes.linkedLists;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Random;
 
 class SkipList {
@@ -211,6 +214,104 @@ class SkipList {
         return result;
     }
 
+    /**
+     * Replace the contents of the skip list with the given values.
+     * Instead of n random-level add calls, levels are assigned deterministically: the i-th value (1-based) gets
+     * 1 + (number of trailing zero bits of i) levels, which yields the ideal shape of a skip list, half the nodes on
+     * level 2, a quarter on level 3 and so on. nodes are appended left to right while remembering the last node seen
+     * on every level, so no search is needed.
+     *
+     * Time: O(n)
+     * @param sorted values in strictly ascending order
+     */
+    public void bulkLoad(int[] sorted) {
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1] >= sorted[i]) throw new IllegalArgumentException("values must be strictly ascending, " +
+                    "found " + sorted[i - 1] + " before " + sorted[i]);
+        }
+        // last[level] = rightmost node linked so far on that level
+        Node[] last = new Node[MAX_LEVEL];
+        for (int level = 0; level < MAX_LEVEL; level++) {
+            this.head.forward[level] = null;
+            last[level] = this.head;
+        }
+        this.highestLevel = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            int level = Math.min(Integer.numberOfTrailingZeros(i + 1) + 1, MAX_LEVEL);
+            Node newNode = new Node(sorted[i], level);
+            for (int l = 0; l < level; l++) {
+                last[l].forward[l] = newNode;
+                last[l] = newNode;
+            }
+            this.highestLevel = Math.max(this.highestLevel, level);
+        }
+        this.size = sorted.length;
+    }
+
+    /**
+     * Return a reusable cursor over this skip list. see Cursor.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Cursor scans a range of values without allocating: unlike rangeSearch there is no List and no boxing, the
+     * caller pulls primitive ints one at a time. one cursor can be re-seeked any number of times.
+     *
+     * Usage:
+     *      Cursor cursor = list.cursor();
+     *      cursor.seek(L, R);
+     *      while (cursor.hasNext()) {
+     *          int value = cursor.next();
+     *      }
+     *
+     * The skip list must not be modified while a cursor is in use.
+     */
+    public class Cursor {
+        private Node current;
+        private int upperBound;
+
+        private Cursor() {
+            this.current = null;
+        }
+
+        /**
+         * Position the cursor on the first value >= L, and stop it after the last value <= R.
+         * Time: O(logn)
+         * @param L lower bound value
+         * @param R upper bound value
+         */
+        public void seek(int L, int R) {
+            Node node = head;
+            for (int level = highestLevel - 1; level >= 0; level--) {
+                while (node.forward[level] != null && node.forward[level].value < L) {
+                    node = node.forward[level];
+                }
+            }
+            this.current = node.forward[0];
+            this.upperBound = R;
+        }
+
+        /**
+         * Time: O(1)
+         */
+        public boolean hasNext() {
+            return this.current != null && this.current.value <= this.upperBound;
+        }
+
+        /**
+         * Return the current value and move to the next one.
+         * Time: O(1)
+         */
+        public int next() {
+            if (!this.hasNext()) throw new NoSuchElementException();
+            int value = this.current.value;
+            this.current = this.current.forward[0];
+            return value;
+        }
+    }
+
     /**
      * Print the skip list level by level (top-down).
      * Example:
@@ -305,5 +406,17 @@ public class SkipListDemo {
         }
         System.out.println("Size: " + list.size());
         list.printLevels();
+
+        System.out.println("=== Test J: Concurrent sorted map ===");
+        LockFreeSkipListMap<Integer, String> book = new LockFreeSkipListMap<>();
+        book.put(101, "bid-a");
+        book.put(99, "bid-b");
+        book.put(100, "bid-c");
+        book.put(100, "bid-d"); // replaces bid-c
+        book.remove(101);
+        Iterator<Map.Entry<Integer, String>> levels = book.rangeSearch(95, 105);
+        while (levels.hasNext()) {
+            System.out.println(levels.next()); // 99=bid-b, 100=bid-d
+        }
     }
 }
@@ -0,0 +1,312 @@
+package advancedTypes.linkedLists;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * UnrolledDeque is a double ended queue built as a doubly linked list of fixed-size array chunks, an alternative to
+ * MyDoubleLinkedList for large buffers.
+ *
+ * MyDoubleLinkedList pays a Node object (header + data/prev/next pointers) for every element and a pointer chase
+ * per step when iterating. here one chunk holds up to chunkSize elements in a contiguous Object[], so the per-element
+ * overhead is about one array slot, and iteration walks arrays sequentially, only following a pointer once per
+ * chunk.
+ *
+ * Internal structure:
+ * - each Chunk stores its elements in items[start, end)
+ * - addFirst fills the head chunk downwards from start, addLast fills the tail chunk upwards from end
+ * - a new chunk is linked in only when the end chunk is full, and unlinked as soon as it becomes empty, so
+ *   addFirst/addLast/removeFirst/removeLast are all O(1)
+ */
+public class UnrolledDeque<T> implements Iterable<T> {
+    private static final int DEFAULT_CHUNK_SIZE = 64;
+
+    private static final class Chunk {
+        final Object[] items;
+        int start;
+        int end;
+        Chunk prev;
+        Chunk next;
+
+        Chunk(int chunkSize, int position) {
+            this.items = new Object[chunkSize];
+            this.start = position;
+            this.end = position;
+        }
+
+        boolean isEmpty() {
+            return this.start == this.end;
+        }
+    }
+
+    private final int chunkSize;
+    private Chunk head;
+    private Chunk tail;
+    private int size;
+    private int modCount;
+
+    public UnrolledDeque() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize number of elements per chunk
+     */
+    public UnrolledDeque(int chunkSize) {
+        if (chunkSize < 2) throw new IllegalArgumentException("chunkSize: " + chunkSize + " must be at least 2");
+        this.chunkSize = chunkSize;
+        this.size = 0;
+    }
+
+    /**
+     * Insert data at the beginning
+     * Time: O(1)
+     * Space: O(1) amortized
+     * @param data
+     */
+    public void addFirst(T data) {
+        if (this.head == null) {
+            this.initFirstChunk();
+        } else if (this.head.start == 0) {
+            // head chunk is full at the front, link a new chunk that fills from its end
+            Chunk chunk = new Chunk(this.chunkSize, this.chunkSize);
+            chunk.next = this.head;
+            this.head.prev = chunk;
+            this.head = chunk;
+        }
+        this.head.start -= 1;
+        this.head.items[this.head.start] = data;
+        this.size += 1;
+        this.modCount += 1;
+    }
+
+    /**
+     * Insert data at the end
+     * Time: O(1)
+     * Space: O(1) amortized
+     * @param data
+     */
+    public void addLast(T data) {
+        if (this.tail == null) {
+            this.initFirstChunk();
+        } else if (this.tail.end == this.chunkSize) {
+            // tail chunk is full at the back, link a new chunk that fills from its start
+            Chunk chunk = new Chunk(this.chunkSize, 0);
+            chunk.prev = this.tail;
+            this.tail.next = chunk;
+            this.tail = chunk;
+        }
+        this.tail.items[this.tail.end] = data;
+        this.tail.end += 1;
+        this.size += 1;
+        this.modCount += 1;
+    }
+
+    /**
+     * Remove and return the first element
+     * Time: O(1)
+     * Space: O(1)
+     * @return the first element, or null if the deque is empty
+     */
+    public T removeFirst() {
+        if (this.size == 0) return null;
+        Chunk chunk = this.head;
+        T data = elementAt(chunk, chunk.start);
+        chunk.items[chunk.start] = null;
+        chunk.start += 1;
+        if (chunk.isEmpty()) this.unlink(chunk);
+        this.size -= 1;
+        this.modCount += 1;
+        return data;
+    }
+
+    /**
+     * Remove and return the last element
+     * Time: O(1)
+     * Space: O(1)
+     * @return the last element, or null if the deque is empty
+     */
+    public T removeLast() {
+        if (this.size == 0) return null;
+        Chunk chunk = this.tail;
+        chunk.end -= 1;
+        T data = elementAt(chunk, chunk.end);
+        chunk.items[chunk.end] = null;
+        if (chunk.isEmpty()) this.unlink(chunk);
+        this.size -= 1;
+        this.modCount += 1;
+        return data;
+    }
+
+    /**
+     * Return the first element without removing it, or null if the deque is empty
+     */
+    public T peekFirst() {
+        if (this.size == 0) return null;
+        return elementAt(this.head, this.head.start);
+    }
+
+    /**
+     * Return the last element without removing it, or null if the deque is empty
+     */
+    public T peekLast() {
+        if (this.size == 0) return null;
+        return elementAt(this.tail, this.tail.end - 1);
+    }
+
+    /**
+     * Checks if the deque contains a value
+     * Time: O(n)
+     * Space: O(1)
+     * @param data
+     * @return
+     */
+    public boolean contains(T data) {
+        for (Chunk chunk = this.head; chunk != null; chunk = chunk.next) {
+            Object[] items = chunk.items;
+            for (int i = chunk.start; i < chunk.end; i++) {
+                if (data.equals(items[i])) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reverse the deque in-place: reverse the chunk order, and the contents of every chunk.
+     * Time: O(n)
+     * Space: O(1)
+     */
+    public void reverse() {
+        Chunk chunk = this.head;
+        while (chunk != null) {
+            Object[] items = chunk.items;
+            // reverse the whole array, so items[start, end) lands in items[chunkSize - end, chunkSize - start)
+            for (int i = 0, j = this.chunkSize - 1; i < j; i++, j--) {
+                Object temp = items[i];
+                items[i] = items[j];
+                items[j] = temp;
+            }
+            int start = chunk.start;
+            chunk.start = this.chunkSize - chunk.end;
+            chunk.end = this.chunkSize - start;
+
+            Chunk next = chunk.next;
+            chunk.next = chunk.prev;
+            chunk.prev = next;
+            chunk = next;
+        }
+        Chunk temp = this.head;
+        this.head = this.tail;
+        this.tail = temp;
+        this.modCount += 1;
+    }
+
+    /**
+     * Run action on every element from head to tail, one chunk array at a time.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        int expectedModCount = this.modCount;
+        for (Chunk chunk = this.head; chunk != null; chunk = chunk.next) {
+            Object[] items = chunk.items;
+            for (int i = chunk.start; i < chunk.end; i++) {
+                action.accept(elementAt(items, i));
+            }
+        }
+        if (this.modCount != expectedModCount) throw new ConcurrentModificationException();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private Chunk chunk = head;
+            private int index = head == null ? 0 : head.start;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return this.chunk != null && this.index < this.chunk.end;
+            }
+
+            @Override
+            public T next() {
+                if (modCount != this.expectedModCount) throw new ConcurrentModificationException();
+                if (!this.hasNext()) throw new NoSuchElementException();
+                T data = elementAt(this.chunk, this.index);
+                this.index += 1;
+                if (this.index == this.chunk.end) {
+                    this.chunk = this.chunk.next;
+                    if (this.chunk != null) this.index = this.chunk.start;
+                }
+                return data;
+            }
+        };
+    }
+
+    /**
+     * Return the number of elements
+     * Time: O(1)
+     * Space: O(1)
+     * @return
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder("size: ").append(this.size).append(" [");
+        boolean first = true;
+        for (T data : this) {
+            if (!first) str.append(" -> ");
+            str.append(data);
+            first = false;
+        }
+        str.append("]");
+        return str.toString();
+    }
+
+    /**
+     * Create the only chunk with its cursor in the middle, so it can grow in both directions.
+     */
+    private void initFirstChunk() {
+        Chunk chunk = new Chunk(this.chunkSize, this.chunkSize / 2);
+        this.head = chunk;
+        this.tail = chunk;
+    }
+
+    /**
+     * Drop an empty chunk from the chain. the last remaining chunk is kept and recentered instead.
+     */
+    private void unlink(Chunk chunk) {
+        if (this.head == this.tail) {
+            chunk.start = this.chunkSize / 2;
+            chunk.end = chunk.start;
+            return;
+        }
+        if (chunk == this.head) {
+            this.head = chunk.next;
+            this.head.prev = null;
+        } else {
+            this.tail = chunk.prev;
+            this.tail.next = null;
+        }
+        chunk.next = null;
+        chunk.prev = null;
+    }
+
+    private static <T> T elementAt(Chunk chunk, int index) {
+        return elementAt(chunk.items, index);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T elementAt(Object[] items, int index) {
+        return (T) items[index];
+    }
+}
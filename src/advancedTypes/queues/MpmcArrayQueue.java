@@ -0,0 +1,172 @@
+package advancedTypes.queues;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * MpmcArrayQueue is a bounded, lock-free, multi-producer/multi-consumer FIFO queue backed by a ring buffer
+ * (Dmitry Vyukov's bounded MPMC queue).
+ *
+ * Internal structure:
+ * - a power-of-two ring of slots, a slot index is position & mask
+ * - every slot carries a sequence number that says whose turn it is:
+ *      - sequence == position: the slot is free for the producer claiming position
+ *      - sequence == position + 1: the slot holds an item for the consumer claiming position
+ *      - after consuming, the slot's sequence is set to position + capacity, freeing it for the next lap
+ * - producers claim positions by CAS on tail, consumers by CAS on head. the two counters are padded so they sit on
+ *   different cache lines and producers do not invalidate the consumers' line (false sharing)
+ *
+ * Once constructed, offer/poll/drainTo allocate nothing. offer returns false when full, poll returns null when empty;
+ * callers decide whether to spin, yield or park.
+ */
+public class MpmcArrayQueue<T> {
+    /**
+     * An AtomicLong followed by 7 longs of padding. a subclass can only add fields after AtomicLong.value, so the
+     * padding is on the trailing side only: the object header sits in front of the value, and two of these allocated
+     * one after the other (head and tail here) keep their values at least 64 bytes apart. what precedes the object in
+     * memory is not padded away.
+     */
+    @SuppressWarnings("unused")
+    static final class PaddedAtomicLong extends AtomicLong {
+        private static final long serialVersionUID = 1L;
+        long p1, p2, p3, p4, p5, p6, p7;
+
+        PaddedAtomicLong(long initialValue) {
+            super(initialValue);
+        }
+
+        // keeps the padding fields from being optimized away
+        long sumPaddingToPreventOptimisation() {
+            return p1 + p2 + p3 + p4 + p5 + p6 + p7;
+        }
+    }
+
+    private final AtomicReferenceArray<T> buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final PaddedAtomicLong head = new PaddedAtomicLong(0);
+    private final PaddedAtomicLong tail = new PaddedAtomicLong(0);
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public MpmcArrayQueue(int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) throw new IllegalArgumentException("capacity: " + capacity +
+                " must be in [2, 2^30]");
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add item to the back of the queue if there is room.
+     * Time: O(1), lock-free
+     * Space: O(1)
+     *
+     * @param item must not be null
+     * @return false if the queue is full
+     */
+    public boolean offer(T item) {
+        if (item == null) throw new NullPointerException("item must not be null");
+        long position = this.tail.get();
+        while (true) {
+            int index = (int) position & this.mask;
+            long sequence = this.sequences.get(index);
+            long diff = sequence - position;
+            if (diff == 0) {
+                // slot is free for this position, try to claim it
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    this.buffer.lazySet(index, item);
+                    // publish: the store to sequences is a release, so the item is visible to the consumer first
+                    this.sequences.set(index, position + 1);
+                    return true;
+                }
+                position = this.tail.get();
+            } else if (diff < 0) {
+                // the slot still holds an item from the previous lap: full
+                return false;
+            } else {
+                // another producer claimed this position, catch up
+                position = this.tail.get();
+            }
+        }
+    }
+
+    /**
+     * Remove and return the front item.
+     * Time: O(1), lock-free
+     * Space: O(1)
+     * @return the front item, or null if the queue is empty
+     */
+    public T poll() {
+        long position = this.head.get();
+        while (true) {
+            int index = (int) position & this.mask;
+            long sequence = this.sequences.get(index);
+            long diff = sequence - (position + 1);
+            if (diff == 0) {
+                if (this.head.compareAndSet(position, position + 1)) {
+                    T item = this.buffer.get(index);
+                    this.buffer.lazySet(index, null);
+                    // hand the slot to the producer of the next lap
+                    this.sequences.set(index, position + this.mask + 1);
+                    return item;
+                }
+                position = this.head.get();
+            } else if (diff < 0) {
+                // the producer for this position has not published yet: empty
+                return null;
+            } else {
+                position = this.head.get();
+            }
+        }
+    }
+
+    /**
+     * Remove up to batch.length items into batch, in FIFO order.
+     * Time: O(k)
+     * Space: O(1)
+     * where k is the number of items drained
+     * @param batch receives the items
+     * @return number of items written into batch
+     */
+    public int drainTo(T[] batch) {
+        int count = 0;
+        while (count < batch.length) {
+            T item = this.poll();
+            if (item == null) break;
+            batch[count] = item;
+            count += 1;
+        }
+        return count;
+    }
+
+    /**
+     * Number of items in the queue. only a snapshot while producers or consumers are running.
+     */
+    public int size() {
+        // read head first: tail can only move forward, so tail - head can never go negative this way
+        long before;
+        long currentTail;
+        long after = this.head.get();
+        do {
+            before = after;
+            currentTail = this.tail.get();
+            after = this.head.get();
+        } while (before != after);
+        return (int) Math.max(0, Math.min(currentTail - after, this.capacity()));
+    }
+
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    public int capacity() {
+        return this.mask + 1;
+    }
+}
@@ -1,5 +1,7 @@
 package advancedTypes.queues;
 
+import java.util.function.Consumer;
+
 class Node<T> {
     private T data;
     private Node<T> next;
@@ -29,6 +31,12 @@ public class MyQueue<T> {
     private Node<T> tail;
     private int size;
 
+    public MyQueue() {
+        this.head = null;
+        this.tail = null;
+        this.size = 0;
+    }
+
     public MyQueue(T data) {
         this.head = new Node<>(data);
         this.tail = this.head;
@@ -60,7 +68,8 @@ public class MyQueue<T> {
      */
     public void enqueue(T item) {
         Node<T> newNode = new Node<>(item);
-        this.tail.setNext(newNode);
+        if (this.tail == null) this.head = newNode;
+        else this.tail.setNext(newNode);
         this.tail = newNode;
         this.size += 1;
     }
@@ -75,6 +84,7 @@ public class MyQueue<T> {
         if (this.head == null) throw new RuntimeException("Queue is empty.");
         Node<T> nodeToRemove = this.head;
         this.head = this.head.getNext();
+        if (this.head == null) this.tail = null;
         T data = nodeToRemove.getData();
         nodeToRemove.setNext(null);
         nodeToRemove = null;
@@ -82,6 +92,24 @@ public class MyQueue<T> {
         return data;
     }
 
+    /**
+     * Remove up to max items from the front and pass each one to consumer, in FIFO order
+     * Time: O(k)
+     * Space: O(1)
+     * where k is the number of items drained
+     * @param consumer
+     * @param max
+     * @return number of items drained
+     */
+    public int drain(Consumer<? super T> consumer, int max) {
+        int count = 0;
+        while (count < max && this.head != null) {
+            consumer.accept(this.dequeue());
+            count += 1;
+        }
+        return count;
+    }
+
     /**
      * Return the front item without removing it
      * Time: O(1)
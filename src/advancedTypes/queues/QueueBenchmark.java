@@ -0,0 +1,159 @@
+package advancedTypes.queues;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput comparison of MpmcArrayQueue against ArrayBlockingQueue and a MyQueue guarded by one lock.
+ *
+ * Each run starts P producers and P consumers. producers push MESSAGES_PER_PRODUCER pre-allocated messages, consumers
+ * poll until all messages are accounted for, and the run reports million messages per second. a full/empty queue is
+ * handled by spinning with Thread.onSpinWait() for all three, so the comparison is about the queue itself, not about
+ * parking.
+ *
+ * This is a plain main() harness, not JMH. run it with a fixed heap (e.g. -Xms1g -Xmx1g) and treat the numbers as
+ * relative.
+ */
+public class QueueBenchmark {
+    private static final int CAPACITY = 1 << 14;
+    private static final int MESSAGES_PER_PRODUCER = 2_000_000;
+    private static final int[] PAIR_COUNTS = {1, 2, 4, 8};
+    private static final int ROUNDS = 3;
+
+    private interface BenchQueue {
+        boolean offer(Integer item);
+
+        Integer poll();
+    }
+
+    private static class MpmcQueue implements BenchQueue {
+        private final MpmcArrayQueue<Integer> queue = new MpmcArrayQueue<>(CAPACITY);
+
+        public boolean offer(Integer item) {
+            return this.queue.offer(item);
+        }
+
+        public Integer poll() {
+            return this.queue.poll();
+        }
+    }
+
+    private static class BlockingQueue implements BenchQueue {
+        private final ArrayBlockingQueue<Integer> queue = new ArrayBlockingQueue<>(CAPACITY);
+
+        public boolean offer(Integer item) {
+            return this.queue.offer(item);
+        }
+
+        public Integer poll() {
+            return this.queue.poll();
+        }
+    }
+
+    /**
+     * MyQueue is unbounded and not thread-safe, so it is bounded here to CAPACITY and serialized on one monitor.
+     */
+    private static class LockedMyQueue implements BenchQueue {
+        private final MyQueue<Integer> queue = new MyQueue<>();
+
+        public synchronized boolean offer(Integer item) {
+            if (this.queue.size() >= CAPACITY) return false;
+            this.queue.enqueue(item);
+            return true;
+        }
+
+        public synchronized Integer poll() {
+            if (this.queue.isEmpty()) return null;
+            return this.queue.dequeue();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        // pre-box the messages so the measurement is not dominated by Integer allocation
+        Integer[] messages = new Integer[MESSAGES_PER_PRODUCER];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = i;
+        }
+
+        System.out.printf("%-8s %16s %16s %16s%n", "pairs", "mpmc (M/s)", "abq (M/s)", "myqueue (M/s)");
+        for (int pairs : PAIR_COUNTS) {
+            double mpmc = 0;
+            double abq = 0;
+            double myQueue = 0;
+            // first round is warmup, keep the best of the rest
+            for (int round = 0; round < ROUNDS; round++) {
+                double a = run(new MpmcQueue(), messages, pairs);
+                double b = run(new BlockingQueue(), messages, pairs);
+                double c = run(new LockedMyQueue(), messages, pairs);
+                if (round == 0) continue;
+                mpmc = Math.max(mpmc, a);
+                abq = Math.max(abq, b);
+                myQueue = Math.max(myQueue, c);
+            }
+            System.out.printf("%-8d %16.2f %16.2f %16.2f%n", pairs, mpmc, abq, myQueue);
+        }
+    }
+
+    /**
+     * @return million messages per second
+     */
+    private static double run(BenchQueue queue, Integer[] messages, int pairs) throws InterruptedException {
+        long total = (long) messages.length * pairs;
+        AtomicLong consumed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(pairs * 2);
+
+        for (int p = 0; p < pairs; p++) {
+            startDaemon(() -> {
+                await(start);
+                for (Integer message : messages) {
+                    while (!queue.offer(message)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                done.countDown();
+            });
+            startDaemon(() -> {
+                await(start);
+                long count = 0;
+                while (consumed.get() < total) {
+                    if (queue.poll() != null) {
+                        count += 1;
+                        // publish in batches so the shared counter does not become the bottleneck
+                        if (count == 1024) {
+                            consumed.addAndGet(count);
+                            count = 0;
+                        }
+                    } else {
+                        if (count > 0) {
+                            consumed.addAndGet(count);
+                            count = 0;
+                        }
+                        Thread.onSpinWait();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        return total * 1000.0 / elapsed;
+    }
+
+    private static void startDaemon(Runnable task) {
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
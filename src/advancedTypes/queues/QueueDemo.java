@@ -25,5 +25,21 @@ public class QueueDemo {
         System.out.println(queue);
         queue.dequeue();
         System.out.println(queue);
+
+        MpmcArrayQueue<String> ring = new MpmcArrayQueue<>(4);
+        System.out.println(ring.offer("a") + " " + ring.offer("b") + " " + ring.offer("c") + " " + ring.offer("d"));
+        System.out.println(ring.offer("e")); // false, full
+        System.out.println(ring.poll()); // a
+        String[] batch = new String[8];
+        int drained = ring.drainTo(batch);
+        System.out.println(drained + " " + batch[0] + batch[1] + batch[2]); // 3 bcd
+
+        SpscArrayQueue<Integer> spsc = new SpscArrayQueue<>(16);
+        for (int i = 1; i <= 10; i++) {
+            spsc.offer(i);
+        }
+        int[] total = new int[1];
+        System.out.println(spsc.drain(value -> total[0] += value, 4) + " " + total[0]); // 4 10
+        System.out.println(spsc.drain(value -> total[0] += value, 100) + " " + total[0]); // 6 55
     }
 }
@@ -0,0 +1,168 @@
+package advancedTypes.queues;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * SpscArrayQueue is a bounded, wait-free, single-producer/single-consumer FIFO queue backed by a ring buffer.
+ *
+ * Exactly one thread may call offer, and exactly one (other) thread may call poll/drain. with a single writer per
+ * counter no CAS is needed, every operation finishes in a bounded number of steps.
+ *
+ * Internal structure:
+ * - a power-of-two ring of slots, a slot index is position & mask
+ * - tail is written only by the producer, head only by the consumer. both are published with lazySet (an ordered
+ *   store): the slot write happens-before the index update, without paying for a full volatile store
+ * - the producer keeps a cached copy of head and only re-reads the real head when the cache says the queue is full.
+ *   the consumer does the same with tail. each snapshot sits in the padded holder of its own side's counter (the
+ *   producer's copy of head next to tail, the consumer's copy of tail next to head), so in the common case neither
+ *   side writes a cache line the other side reads
+ *
+ * drain hands a whole batch to the consumer per call and publishes head once for the batch, instead of once per item.
+ */
+public class SpscArrayQueue<T> {
+    /**
+     * One side's counter together with that side's snapshot of the other side's counter, followed by 7 longs of
+     * padding. the owner writes both fields, the other side only reads the counter.
+     */
+    @SuppressWarnings("unused")
+    static final class Index extends AtomicLong {
+        private static final long serialVersionUID = 1L;
+        // the owner's snapshot of the other side's counter
+        long cache;
+        long p1, p2, p3, p4, p5, p6, p7;
+
+        // keeps the padding fields from being optimized away
+        long sumPaddingToPreventOptimisation() {
+            return p1 + p2 + p3 + p4 + p5 + p6 + p7;
+        }
+    }
+
+    private final Object[] buffer;
+    private final int mask;
+    // head.cache is the consumer's snapshot of tail
+    private final Index head = new Index();
+    // tail.cache is the producer's snapshot of head
+    private final Index tail = new Index();
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public SpscArrayQueue(int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) throw new IllegalArgumentException("capacity: " + capacity +
+                " must be in [2, 2^30]");
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Add item to the back of the queue if there is room. producer thread only.
+     * Time: O(1), wait-free
+     * Space: O(1)
+     *
+     * @param item must not be null
+     * @return false if the queue is full
+     */
+    public boolean offer(T item) {
+        if (item == null) throw new NullPointerException("item must not be null");
+        long currentTail = this.tail.get();
+        long wrapPoint = currentTail - this.buffer.length;
+        if (this.tail.cache <= wrapPoint) {
+            this.tail.cache = this.head.get();
+            if (this.tail.cache <= wrapPoint) return false;
+        }
+        this.buffer[(int) currentTail & this.mask] = item;
+        this.tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Remove and return the front item. consumer thread only.
+     * Time: O(1), wait-free
+     * Space: O(1)
+     * @return the front item, or null if the queue is empty
+     */
+    public T poll() {
+        long currentHead = this.head.get();
+        if (currentHead >= this.head.cache) {
+            this.head.cache = this.tail.get();
+            if (currentHead >= this.head.cache) return null;
+        }
+        int index = (int) currentHead & this.mask;
+        T item = this.elementAt(index);
+        this.buffer[index] = null;
+        this.head.lazySet(currentHead + 1);
+        return item;
+    }
+
+    /**
+     * Return the front item without removing it. consumer thread only.
+     * @return the front item, or null if the queue is empty
+     */
+    public T peek() {
+        long currentHead = this.head.get();
+        if (currentHead >= this.head.cache) {
+            this.head.cache = this.tail.get();
+            if (currentHead >= this.head.cache) return null;
+        }
+        return this.elementAt((int) currentHead & this.mask);
+    }
+
+    /**
+     * Remove up to max items and pass each one to consumer, in FIFO order. consumer thread only.
+     * tail is read once and head is published once for the whole batch.
+     * Time: O(k)
+     * Space: O(1)
+     * where k is the number of items drained
+     * @param consumer
+     * @param max
+     * @return number of items drained
+     */
+    public int drain(Consumer<? super T> consumer, int max) {
+        long currentHead = this.head.get();
+        long available = this.head.cache - currentHead;
+        if (available < max) {
+            this.head.cache = this.tail.get();
+            available = this.head.cache - currentHead;
+        }
+        int count = (int) Math.min(available, max);
+        if (count <= 0) return 0;
+        int drained = 0;
+        try {
+            while (drained < count) {
+                int index = (int) (currentHead + drained) & this.mask;
+                T item = this.elementAt(index);
+                this.buffer[index] = null;
+                drained += 1;
+                consumer.accept(item);
+            }
+        } finally {
+            // if consumer throws, the items handed over so far still count as consumed
+            this.head.lazySet(currentHead + drained);
+        }
+        return count;
+    }
+
+    /**
+     * Number of items in the queue. only a snapshot while the producer or consumer is running.
+     */
+    public int size() {
+        long currentHead = this.head.get();
+        long currentTail = this.tail.get();
+        return (int) Math.max(0, Math.min(currentTail - currentHead, this.buffer.length));
+    }
+
+    public boolean isEmpty() {
+        return this.head.get() >= this.tail.get();
+    }
+
+    public int capacity() {
+        return this.buffer.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(int index) {
+        return (T) this.buffer[index];
+    }
+}
@@ -1,6 +1,7 @@
 package advancedTypes.trees;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 class BTreeNode {
@@ -238,20 +239,241 @@ class BTree {
      * 	•	Determine the child subtree where k should be.
      * 	•	Before descending, ensure the child has ≥ t keys (borrow or merge if not).
      * 	•	Recurse into child.
+     *
+     * Every node we descend into has at least t keys, so removing one key never underflows it and the tree is fixed
+     * up in a single pass top down. if the root loses its last key in a merge, its only child becomes the new root and
+     * the tree shrinks by one level.
+     * Duplicates are allowed, one occurrence of key is removed.
      * @param key
-     * @return
+     * @return number of keys removed: 1, or 0 if key is not in the tree
      */
     public int delete(int key) {
-        // TODO: impl
-        // case 1: simple delete key from leaf
-        // case 2a: internal node, left child has t keys
-        // case 2b: internal node, right child has t keys
-        // case 2c: internal node, both children have t-1 keys
-        // case 3b: node in recursion path has only t-1 keys
-        // case 3a: node has only t-1 keys, but sibling has t keys
-        return -1;
+        boolean deleted = this.deleteRecursive(this.root, key);
+        if (this.root.keys.isEmpty() && !this.root.leaf) {
+            this.root = this.root.children.get(0);
+        }
+        return deleted ? 1 : 0;
+    }
+
+    /**
+     * Delete key from the subtree of node, which has at least t keys unless it is the root.
+     * @param node
+     * @param key
+     * @return true if key was found and removed
+     */
+    private boolean deleteRecursive(BTreeNode node, int key) {
+        int i = 0;
+        while (i < node.keys.size() && key > node.keys.get(i)) {
+            i += 1;
+        }
+        if (i < node.keys.size() && key == node.keys.get(i)) {
+            // case 1: simple delete key from leaf
+            if (node.leaf) {
+                node.keys.remove(i);
+                return true;
+            }
+            BTreeNode left = node.children.get(i);
+            BTreeNode right = node.children.get(i + 1);
+            // case 2a: internal node, left child has t keys -> replace key with its predecessor
+            if (left.keys.size() >= minDegree) {
+                int predecessor = this.max(left);
+                node.keys.set(i, predecessor);
+                return this.deleteRecursive(left, predecessor);
+            }
+            // case 2b: internal node, right child has t keys -> replace key with its successor
+            if (right.keys.size() >= minDegree) {
+                int successor = this.min(right);
+                node.keys.set(i, successor);
+                return this.deleteRecursive(right, successor);
+            }
+            // case 2c: internal node, both children have t-1 keys -> merge key and right into left
+            this.merge(node, i);
+            return this.deleteRecursive(left, key);
+        }
+        // key not found and no children
+        if (node.leaf) return false;
+        // case 3: make sure the child we descend into has at least t keys
+        if (node.children.get(i).keys.size() < minDegree) {
+            i = this.fill(node, i);
+        }
+        return this.deleteRecursive(node.children.get(i), key);
+    }
+
+    /**
+     * Give child index of node, which has t-1 keys, one more key.
+     * case 3a: a sibling has t keys -> rotate a key through the parent
+     * case 3b: both siblings have t-1 keys -> merge with one of them
+     * @param node
+     * @param index
+     * @return index of the child that now covers the old child's key range, index - 1 after a merge with the left
+     * sibling
+     */
+    private int fill(BTreeNode node, int index) {
+        BTreeNode child = node.children.get(index);
+        if (index > 0 && node.children.get(index - 1).keys.size() >= minDegree) {
+            BTreeNode left = node.children.get(index - 1);
+            child.keys.add(0, node.keys.get(index - 1));
+            node.keys.set(index - 1, left.keys.remove(left.keys.size() - 1));
+            if (!child.leaf) {
+                child.children.add(0, left.children.remove(left.children.size() - 1));
+            }
+            return index;
+        }
+        if (index < node.keys.size() && node.children.get(index + 1).keys.size() >= minDegree) {
+            BTreeNode right = node.children.get(index + 1);
+            child.keys.add(node.keys.get(index));
+            node.keys.set(index, right.keys.remove(0));
+            if (!child.leaf) {
+                child.children.add(right.children.remove(0));
+            }
+            return index;
+        }
+        if (index < node.keys.size()) {
+            this.merge(node, index);
+            return index;
+        }
+        this.merge(node, index - 1);
+        return index - 1;
+    }
+
+    /**
+     * Merge child index + 1 of node and the key between them into child index. both children have t-1 keys, so the
+     * result has 2t-1.
+     * @param node
+     * @param index
+     */
+    private void merge(BTreeNode node, int index) {
+        BTreeNode left = node.children.get(index);
+        BTreeNode right = node.children.remove(index + 1);
+        left.keys.add(node.keys.remove(index));
+        left.keys.addAll(right.keys);
+        left.children.addAll(right.children);
+    }
+
+    private int max(BTreeNode node) {
+        while (!node.leaf) {
+            node = node.children.get(node.children.size() - 1);
+        }
+        return node.keys.get(node.keys.size() - 1);
+    }
+
+    private int min(BTreeNode node) {
+        while (!node.leaf) {
+            node = node.children.get(0);
+        }
+        return node.keys.get(0);
+    }
+
+    /**
+     * Replace the contents of the tree with sorted, every node packed full.
+     * @param sorted
+     */
+    public void bulkLoad(int[] sorted) {
+        this.bulkLoad(sorted, 1.0);
+    }
+
+    /**
+     * Replace the contents of the tree with sorted, built bottom up instead of by repeated insert.
+     *
+     * - the leaf level: cut sorted into runs of about fillFactor * (2t - 1) keys, the single key between two runs is
+     *   a separator that moves up
+     * - the separators are the keys of the next level, the nodes just built its children. cut them the same way
+     * - repeat until one level fits in a single node, the root
+     *
+     * Keys are spread evenly over the nodes of a level, so every non-root node keeps between t - 1 and 2t - 1 keys
+     * whatever the fill factor. a fill factor below 1 leaves room in every node for later inserts before they split.
+     * Time: O(n), every level is a linear pass and each is about 1/t the size of the one below
+     * Space: O(n)
+     * @param sorted keys in non-decreasing order
+     * @param fillFactor in (0, 1], target fraction of 2t - 1 keys per node
+     */
+    public void bulkLoad(int[] sorted, double fillFactor) {
+        if (!(fillFactor > 0 && fillFactor <= 1)) {
+            throw new IllegalArgumentException("fillFactor: " + fillFactor + " must be in (0, 1]");
+        }
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] < sorted[i - 1]) throw new IllegalArgumentException("sorted: out of order at index " + i);
+        }
+        int maxKeys = 2 * minDegree - 1;
+        int keysPerNode = Math.max(minDegree - 1, Math.min(maxKeys, (int) Math.round(fillFactor * maxKeys)));
+        int[] keys = sorted;
+        // children of the level being built, null while building the leaves
+        BTreeNode[] children = null;
+        while (keys.length > maxKeys) {
+            int nodeCount = nodesPerLevel(keys.length, keysPerNode, minDegree);
+            int perNode = (keys.length - (nodeCount - 1)) / nodeCount;
+            int extra = (keys.length - (nodeCount - 1)) % nodeCount;
+            int[] separators = new int[nodeCount - 1];
+            BTreeNode[] level = new BTreeNode[nodeCount];
+            int next = 0;
+            for (int j = 0; j < nodeCount; j++) {
+                int count = perNode + (j < extra ? 1 : 0);
+                level[j] = this.newNode(keys, children, next, count);
+                next += count;
+                if (j < nodeCount - 1) {
+                    separators[j] = keys[next];
+                    next += 1;
+                }
+            }
+            keys = separators;
+            children = level;
+        }
+        this.root = this.newNode(keys, children, 0, keys.length);
+    }
+
+    /**
+     * Node holding keys [from, from + count) and, unless children is null, children [from, from + count].
+     */
+    private BTreeNode newNode(int[] keys, BTreeNode[] children, int from, int count) {
+        BTreeNode node = new BTreeNode(children == null);
+        node.keys = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            node.keys.add(keys[i]);
+        }
+        if (children != null) {
+            node.children = new ArrayList<>(Arrays.asList(children).subList(from, from + count + 1));
+        }
+        return node;
+    }
+
+    /**
+     * Number of nodes to cut a level of keyCount keys into, about keysPerNode keys each plus one separator between
+     * neighbours, with an even share of at least t - 1 keys per node.
+     */
+    static int nodesPerLevel(int keyCount, int keysPerNode, int minDegree) {
+        int nodes = (keyCount + 1 + keysPerNode) / (keysPerNode + 1);
+        // fewer, fuller nodes when the even share would drop below the minimum
+        if (nodes > 1 && (keyCount - (nodes - 1)) / nodes < minDegree - 1) {
+            nodes -= 1;
+        }
+        return nodes;
     }
 }
 
 public class BTreeDemo {
+    public static void main(String[] args) {
+        BTree tree = new BTree(2);
+        int[] keys = {10, 20, 5, 6, 12, 30, 7, 17, 3, 4, 2, 50};
+        for (int key : keys) {
+            tree.insert(key);
+        }
+        System.out.println("=== Delete ===");
+        // 6 sits in an internal node, 50 and 3 in leaves, 99 is absent
+        for (int key : new int[]{6, 50, 3, 99}) {
+            System.out.println("delete " + key + ": " + tree.delete(key) + ", search " + key + ": "
+                    + (tree.search(key) != null));
+        }
+        System.out.println("search 17: " + (tree.search(17) != null)); // true
+
+        System.out.println("=== Bulk load ===");
+        int[] sorted = new int[1000];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = 2 * i;
+        }
+        BTree loaded = new BTree(4);
+        loaded.bulkLoad(sorted, 0.7);
+        System.out.println("search 998: " + (loaded.search(998) != null)); // true
+        System.out.println("search 999: " + (loaded.search(999) != null)); // false
+        System.out.println("delete 0: " + loaded.delete(0) + ", search 0: " + (loaded.search(0) != null));
+    }
 }
@@ -169,6 +169,190 @@ class BTree2 {
         parent.children[index + 1] = newNode;
         parent.keyCount += 1;
     }
+
+    /**
+     * Delete one occurrence of key, single pass top down.
+     *
+     * Rules, at each node on the way down:
+     * - key in a leaf -> remove it
+     * - key in an internal node -> replace it with its predecessor (or successor) if that child has t keys and delete
+     *   that one instead, else merge both children around it and continue in the merged node
+     * - key not in the node -> before descending, give the child t keys by borrowing from a sibling or merging
+     * so no node underflows after the removal. an empty root is replaced by its only child.
+     * Time: O(t log n)
+     * @param key
+     * @return true if key was in the tree
+     */
+    public boolean delete(int key) {
+        boolean deleted = this.deleteRecursive(this.root, key);
+        if (this.root.keyCount == 0 && !this.root.isLeaf) {
+            this.root = this.root.children[0];
+        }
+        return deleted;
+    }
+
+    private boolean deleteRecursive(BTreeNode2 node, int key) {
+        int i = 0;
+        while (i < node.keyCount && node.keys[i] < key) {
+            i += 1;
+        }
+        if (i < node.keyCount && node.keys[i] == key) {
+            if (node.isLeaf) {
+                this.removeKey(node, i);
+                return true;
+            }
+            BTreeNode2 left = node.children[i];
+            BTreeNode2 right = node.children[i + 1];
+            if (left.keyCount >= this.t) {
+                BTreeNode2 max = left;
+                while (!max.isLeaf) max = max.children[max.keyCount];
+                node.keys[i] = max.keys[max.keyCount - 1];
+                return this.deleteRecursive(left, node.keys[i]);
+            }
+            if (right.keyCount >= this.t) {
+                BTreeNode2 min = right;
+                while (!min.isLeaf) min = min.children[0];
+                node.keys[i] = min.keys[0];
+                return this.deleteRecursive(right, node.keys[i]);
+            }
+            this.merge(node, i);
+            return this.deleteRecursive(left, key);
+        }
+        if (node.isLeaf) {
+            return false;
+        }
+        if (node.children[i].keyCount < this.t) {
+            i = this.fill(node, i);
+        }
+        return this.deleteRecursive(node.children[i], key);
+    }
+
+    /**
+     * Give child index of node (t - 1 keys) a key from a sibling with t keys, or merge it with a sibling.
+     * @return index of the child to descend into
+     */
+    private int fill(BTreeNode2 node, int index) {
+        BTreeNode2 child = node.children[index];
+        if (index > 0 && node.children[index - 1].keyCount >= this.t) {
+            BTreeNode2 left = node.children[index - 1];
+            // shift child right by one, the parent key comes down, left's last key goes up
+            System.arraycopy(child.keys, 0, child.keys, 1, child.keyCount);
+            child.keys[0] = node.keys[index - 1];
+            node.keys[index - 1] = left.keys[left.keyCount - 1];
+            if (!child.isLeaf) {
+                System.arraycopy(child.children, 0, child.children, 1, child.keyCount + 1);
+                child.children[0] = left.children[left.keyCount];
+                left.children[left.keyCount] = null;
+            }
+            child.keyCount += 1;
+            left.keyCount -= 1;
+            return index;
+        }
+        if (index < node.keyCount && node.children[index + 1].keyCount >= this.t) {
+            BTreeNode2 right = node.children[index + 1];
+            // the parent key comes down to the end of child, right's first key goes up
+            child.keys[child.keyCount] = node.keys[index];
+            node.keys[index] = right.keys[0];
+            if (!child.isLeaf) {
+                child.children[child.keyCount + 1] = right.children[0];
+                System.arraycopy(right.children, 1, right.children, 0, right.keyCount);
+                right.children[right.keyCount] = null;
+            }
+            System.arraycopy(right.keys, 1, right.keys, 0, right.keyCount - 1);
+            child.keyCount += 1;
+            right.keyCount -= 1;
+            return index;
+        }
+        if (index < node.keyCount) {
+            this.merge(node, index);
+            return index;
+        }
+        this.merge(node, index - 1);
+        return index - 1;
+    }
+
+    /**
+     * Merge children index and index + 1 of node, both with t - 1 keys, and the key between them into child index.
+     */
+    private void merge(BTreeNode2 node, int index) {
+        BTreeNode2 left = node.children[index];
+        BTreeNode2 right = node.children[index + 1];
+        left.keys[left.keyCount] = node.keys[index];
+        System.arraycopy(right.keys, 0, left.keys, left.keyCount + 1, right.keyCount);
+        if (!left.isLeaf) {
+            System.arraycopy(right.children, 0, left.children, left.keyCount + 1, right.keyCount + 1);
+        }
+        left.keyCount += right.keyCount + 1;
+        this.removeKey(node, index);
+        // removeKey dropped the key, drop the pointer to right as well
+        System.arraycopy(node.children, index + 2, node.children, index + 1, node.keyCount - index);
+        node.children[node.keyCount + 1] = null;
+    }
+
+    private void removeKey(BTreeNode2 node, int index) {
+        System.arraycopy(node.keys, index + 1, node.keys, index, node.keyCount - index - 1);
+        node.keyCount -= 1;
+    }
+
+    /**
+     * Replace the contents of the tree with sorted, every node packed full.
+     * @param sorted
+     */
+    public void bulkLoad(int[] sorted) {
+        this.bulkLoad(sorted, 1.0);
+    }
+
+    /**
+     * Replace the contents of the tree with sorted, built bottom up in one pass per level: the leaves take runs of
+     * about fillFactor * (2t - 1) keys, the key between two runs moves up as a separator, and the separators are cut
+     * the same way into the next level until they fit in one root. see BTree.bulkLoad.
+     * Time: O(n)
+     * Space: O(n)
+     * @param sorted keys in non-decreasing order
+     * @param fillFactor in (0, 1], target fraction of 2t - 1 keys per node. every non-root node gets at least t - 1
+     */
+    public void bulkLoad(int[] sorted, double fillFactor) {
+        if (!(fillFactor > 0 && fillFactor <= 1)) {
+            throw new IllegalArgumentException("fillFactor: " + fillFactor + " must be in (0, 1]");
+        }
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] < sorted[i - 1]) throw new IllegalArgumentException("sorted: out of order at index " + i);
+        }
+        int maxKeys = 2 * this.t - 1;
+        int keysPerNode = Math.max(this.t - 1, Math.min(maxKeys, (int) Math.round(fillFactor * maxKeys)));
+        int[] keys = sorted;
+        BTreeNode2[] children = null;
+        while (keys.length > maxKeys) {
+            int nodeCount = BTree.nodesPerLevel(keys.length, keysPerNode, this.t);
+            int perNode = (keys.length - (nodeCount - 1)) / nodeCount;
+            int extra = (keys.length - (nodeCount - 1)) % nodeCount;
+            int[] separators = new int[nodeCount - 1];
+            BTreeNode2[] level = new BTreeNode2[nodeCount];
+            int next = 0;
+            for (int j = 0; j < nodeCount; j++) {
+                int count = perNode + (j < extra ? 1 : 0);
+                level[j] = this.newNode(keys, children, next, count);
+                next += count;
+                if (j < nodeCount - 1) {
+                    separators[j] = keys[next];
+                    next += 1;
+                }
+            }
+            keys = separators;
+            children = level;
+        }
+        this.root = this.newNode(keys, children, 0, keys.length);
+    }
+
+    private BTreeNode2 newNode(int[] keys, BTreeNode2[] children, int from, int count) {
+        BTreeNode2 node = new BTreeNode2(this.t, children == null);
+        System.arraycopy(keys, from, node.keys, 0, count);
+        node.keyCount = count;
+        if (children != null) {
+            System.arraycopy(children, from, node.children, 0, count + 1);
+        }
+        return node;
+    }
 }
 
 public class BTreeDemo2 {
@@ -203,6 +387,20 @@ public class BTreeDemo2 {
         System.out.println("Search 17: " + tree.search(17)); // true
         System.out.println("Search 999: " + tree.search(999)); // false
         System.out.println("Search 6: " + tree.search(6)); // true
+
+        System.out.println("\n=== Delete Test ===");
+        // 6 is in an internal node, 50 in a leaf, 999 is absent
+        System.out.println("Delete 6: " + tree.delete(6)); // true
+        System.out.println("Delete 50: " + tree.delete(50)); // true
+        System.out.println("Delete 999: " + tree.delete(999)); // false
+        printTree(tree.root);
+        System.out.println("Search 6: " + tree.search(6)); // false
+
+        System.out.println("\n=== Bulk Load Test ===");
+        BTree2 loaded = new BTree2(2);
+        loaded.bulkLoad(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15}, 0.7);
+        printTree(loaded.root);
+        System.out.println("Search 11: " + loaded.search(11)); // true
     }
 
     static void printTree(BTreeNode2 node) {
@@ -0,0 +1,237 @@
+package advancedTypes.trees;
+
+import advancedTypes.hashtable.IntIntHashTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * BufferPool caches fixed-size pages of a file in a bounded number of in-memory frames.
+ *
+ * - pin(pageId) returns the frame holding the page, reading it from the file on a miss. a pinned frame is never
+ *   evicted, every pin must be paired with an unpin
+ * - unpin(frame, dirty) releases the frame. dirty frames are written back when they are evicted or on flush()
+ * - eviction uses CLOCK: a hand sweeps the frames, a frame touched since the last sweep gets a second chance (its
+ *   referenced bit is cleared), the first unpinned frame without the bit is the victim. this approximates LRU with
+ *   one bit per frame instead of a linked list update on every hit
+ * - the page table maps page id to frame index in an IntIntHashTable, no boxing on the lookup path
+ *
+ * Not thread-safe.
+ */
+public class BufferPool implements Closeable {
+    public static final int PAGE_SIZE = 4096;
+    private static final int NO_FRAME = -1;
+
+    public static final class Frame {
+        private final ByteBuffer data;
+        private int pageId = -1;
+        private int pinCount;
+        private boolean dirty;
+        private boolean referenced;
+
+        private Frame() {
+            this.data = ByteBuffer.allocateDirect(PAGE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * Page contents, use absolute get/put only.
+         */
+        public ByteBuffer data() {
+            return this.data;
+        }
+
+        public int pageId() {
+            return this.pageId;
+        }
+    }
+
+    private final FileChannel channel;
+    private final Frame[] frames;
+    private final IntIntHashTable pageTable;
+    private int clockHand = 0;
+    private int pageCount;
+    private long hits;
+    private long misses;
+    private long writes;
+
+    /**
+     * Open or create the page file.
+     * @param file
+     * @param capacity number of frames
+     * @throws IOException
+     */
+    public BufferPool(Path file, int capacity) throws IOException {
+        if (capacity < 4) throw new IllegalArgumentException("capacity: " + capacity + " must be at least 4");
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long size = this.channel.size();
+        if (size % PAGE_SIZE != 0) throw new IOException(file + " is not a page file, size " + size);
+        this.pageCount = (int) (size / PAGE_SIZE);
+        this.frames = new Frame[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.frames[i] = new Frame();
+        }
+        this.pageTable = new IntIntHashTable(capacity, 0.5f, NO_FRAME);
+    }
+
+    /**
+     * Pin an existing page.
+     * Time: O(1) on a hit, one page read (plus one write for a dirty victim) on a miss
+     * @param pageId
+     * @return
+     */
+    public Frame pin(int pageId) {
+        if (pageId < 0 || pageId >= this.pageCount) {
+            throw new IndexOutOfBoundsException("page: " + pageId + " is out of bounds");
+        }
+        int index = this.pageTable.get(pageId);
+        if (index != NO_FRAME) {
+            Frame frame = this.frames[index];
+            frame.pinCount += 1;
+            frame.referenced = true;
+            this.hits += 1;
+            return frame;
+        }
+        this.misses += 1;
+        Frame frame = this.claimFrame(pageId);
+        try {
+            frame.data.clear();
+            long position = (long) pageId * PAGE_SIZE;
+            while (frame.data.hasRemaining()) {
+                if (this.channel.read(frame.data, position + frame.data.position()) < 0) break;
+            }
+        } catch (IOException e) {
+            this.release(frame);
+            throw new UncheckedIOException(e);
+        }
+        return frame;
+    }
+
+    /**
+     * Append a new zero-filled page to the file and pin it. it is marked dirty, so it reaches the file on eviction or
+     * flush.
+     * @return
+     */
+    public Frame allocate() {
+        int pageId = this.pageCount;
+        this.pageCount += 1;
+        Frame frame = this.claimFrame(pageId);
+        ByteBuffer data = frame.data;
+        for (int i = 0; i < PAGE_SIZE; i += 8) {
+            data.putLong(i, 0L);
+        }
+        frame.dirty = true;
+        return frame;
+    }
+
+    /**
+     * Release one pin of frame.
+     * @param frame
+     * @param dirty true if the caller modified the page
+     */
+    public void unpin(Frame frame, boolean dirty) {
+        if (frame.pinCount <= 0) throw new IllegalStateException("page: " + frame.pageId + " is not pinned");
+        frame.pinCount -= 1;
+        frame.dirty |= dirty;
+    }
+
+    /**
+     * Pick a victim with CLOCK, write it back if dirty, and map it to pageId, pinned once.
+     */
+    private Frame claimFrame(int pageId) {
+        // two full sweeps: the first may only clear referenced bits
+        for (int step = 0; step < 2 * this.frames.length; step++) {
+            Frame frame = this.frames[this.clockHand];
+            int index = this.clockHand;
+            this.clockHand = (this.clockHand + 1) % this.frames.length;
+            if (frame.pinCount > 0) continue;
+            if (frame.referenced) {
+                frame.referenced = false;
+                continue;
+            }
+            if (frame.pageId >= 0) {
+                if (frame.dirty) this.writeBack(frame);
+                this.pageTable.remove(frame.pageId);
+            }
+            frame.pageId = pageId;
+            frame.pinCount = 1;
+            frame.dirty = false;
+            frame.referenced = true;
+            this.pageTable.put(pageId, index);
+            return frame;
+        }
+        throw new IllegalStateException("all " + this.frames.length + " frames are pinned");
+    }
+
+    private void release(Frame frame) {
+        this.pageTable.remove(frame.pageId);
+        frame.pageId = -1;
+        frame.pinCount = 0;
+        frame.dirty = false;
+    }
+
+    private void writeBack(Frame frame) {
+        try {
+            ByteBuffer data = frame.data.duplicate();
+            data.clear();
+            long position = (long) frame.pageId * PAGE_SIZE;
+            while (data.hasRemaining()) {
+                this.channel.write(data, position + data.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        frame.dirty = false;
+        this.writes += 1;
+    }
+
+    /**
+     * Write every dirty page back to the file.
+     */
+    public void flush() {
+        for (Frame frame : this.frames) {
+            if (frame.pageId >= 0 && frame.dirty) this.writeBack(frame);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.flush();
+        this.channel.force(true);
+        this.channel.close();
+    }
+
+    public int pageCount() {
+        return this.pageCount;
+    }
+
+    public int capacity() {
+        return this.frames.length;
+    }
+
+    public long hits() {
+        return this.hits;
+    }
+
+    public long misses() {
+        return this.misses;
+    }
+
+    public long writes() {
+        return this.writes;
+    }
+
+    /**
+     * Fraction of pins served without reading the file.
+     */
+    public double hitRate() {
+        long total = this.hits + this.misses;
+        return total == 0 ? 0 : (double) this.hits / total;
+    }
+}
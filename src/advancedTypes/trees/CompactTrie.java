@@ -0,0 +1,202 @@
+package advancedTypes.trees;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * CompactTrie is a read-only trie stored in a few flat primitive arrays instead of one object + HashMap per node.
+ * build one by freezing a mutable Trie with Trie.freeze().
+ *
+ * Layout (LOUDS-style, level order):
+ * - nodes are numbered in breadth-first order, root = 0, and within a node children are ordered by character
+ * - edges are numbered in the same order. since breadth-first order visits children in exactly the order their edges
+ *   were written, the edge with number e always leads to node e + 1, so no child pointer has to be stored
+ * - labels[e] = character on edge e
+ * - firstEdge[v] .. firstEdge[v + 1] - 1 = edges leaving node v, sorted by label, found by binary search
+ * - terminal bit v is set if a word ends at node v
+ *
+ * That is about 6 bytes and 1 bit per node, compared to a TrieNode, its HashMap, a HashMap.Node and a boxed
+ * Character per node in Trie. plain LOUDS replaces firstEdge with a bit vector and rank/select, which is smaller
+ * still but slower to navigate; the explicit offsets keep every child step a couple of array reads.
+ */
+public class CompactTrie {
+    private final int[] firstEdge;
+    private final char[] labels;
+    private final long[] terminal;
+    private final int nodeCount;
+    private final int wordCount;
+
+    private CompactTrie(int[] firstEdge, char[] labels, long[] terminal, int wordCount) {
+        this.firstEdge = firstEdge;
+        this.labels = labels;
+        this.terminal = terminal;
+        this.nodeCount = firstEdge.length - 1;
+        this.wordCount = wordCount;
+    }
+
+    /**
+     * Lay out the trie under root in level order.
+     * Time: O(N * a log a)
+     * Space: O(N)
+     * - where N is the number of nodes and a the alphabet size (sorting each node's children)
+     * @param root
+     * @return
+     */
+    static CompactTrie build(TrieNode root) {
+        // pass 1: breadth-first order of the nodes, children sorted by character
+        List<TrieNode> order = new ArrayList<>();
+        Queue<TrieNode> queue = new ArrayDeque<>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            TrieNode node = queue.remove();
+            order.add(node);
+            for (char c : sortedKeys(node)) {
+                queue.add(node.getChildren().get(c));
+            }
+        }
+
+        // pass 2: write the edge labels and offsets in the same order
+        int nodeCount = order.size();
+        int[] firstEdge = new int[nodeCount + 1];
+        char[] labels = new char[nodeCount - 1];
+        long[] terminal = new long[(nodeCount + 63) >>> 6];
+        int edge = 0;
+        int wordCount = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            TrieNode node = order.get(v);
+            firstEdge[v] = edge;
+            for (char c : sortedKeys(node)) {
+                labels[edge] = c;
+                edge += 1;
+            }
+            if (node.endOfWord) {
+                terminal[v >>> 6] |= 1L << v;
+                wordCount += 1;
+            }
+        }
+        firstEdge[nodeCount] = edge;
+        return new CompactTrie(firstEdge, labels, terminal, wordCount);
+    }
+
+    private static char[] sortedKeys(TrieNode node) {
+        Map<Character, TrieNode> children = node.getChildren();
+        char[] keys = new char[children.size()];
+        int i = 0;
+        for (Character c : children.keySet()) {
+            keys[i] = c;
+            i += 1;
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    /**
+     * Find out if the trie has the word.
+     * Time: O(L log a)
+     * - where L is the length of the word and a the alphabet size
+     * @param word
+     * @return
+     */
+    public boolean search(String word) {
+        int node = this.getNode(sanitize(word));
+        return node >= 0 && this.isTerminal(node);
+    }
+
+    /**
+     * Find out if the trie has a word starting with prefix.
+     * Time: O(L log a)
+     * @param prefix
+     * @return
+     */
+    public boolean startsWith(String prefix) {
+        return this.getNode(sanitize(prefix)) >= 0;
+    }
+
+    /**
+     * Get all the words starting with 'prefix', in alphabetical order.
+     * Time: O(K)
+     * - where K is the total number of characters in all matching words
+     * Space: O(K)
+     * @param prefix
+     * @return
+     */
+    public List<String> getAllWordsStartingWith(String prefix) {
+        String sanitizedPrefix = sanitize(prefix);
+        List<String> results = new ArrayList<>();
+        int node = this.getNode(sanitizedPrefix);
+        if (node < 0) return results;
+        this.dfsCollect(node, new StringBuilder(sanitizedPrefix), results);
+        return results;
+    }
+
+    /**
+     * Depth first search from node. one StringBuilder is shared by the whole walk: a character is appended before
+     * descending and removed after, so only the collected words themselves are allocated.
+     */
+    private void dfsCollect(int node, StringBuilder path, List<String> results) {
+        if (this.isTerminal(node)) results.add(path.toString());
+        for (int edge = this.firstEdge[node]; edge < this.firstEdge[node + 1]; edge++) {
+            path.append(this.labels[edge]);
+            this.dfsCollect(edge + 1, path, results);
+            path.setLength(path.length() - 1);
+        }
+    }
+
+    /**
+     * Number of words stored.
+     */
+    public int size() {
+        return this.wordCount;
+    }
+
+    /**
+     * Number of nodes, including the root.
+     */
+    public int nodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * Follow str from the root.
+     * @return the node where str ends, or -1 if str is not a path in the trie. like Trie, the empty string is not a
+     * path, so startsWith("") is false and getAllWordsStartingWith("") is empty
+     */
+    private int getNode(String str) {
+        if (str.isEmpty()) return -1;
+        int node = 0;
+        for (int i = 0; i < str.length() && node >= 0; i++) {
+            node = this.child(node, str.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Binary search the edges leaving node for label c.
+     * @return the child node, or -1
+     */
+    private int child(int node, char c) {
+        int lo = this.firstEdge[node];
+        int hi = this.firstEdge[node + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char label = this.labels[mid];
+            if (label < c) lo = mid + 1;
+            else if (label > c) hi = mid - 1;
+            else return mid + 1;
+        }
+        return -1;
+    }
+
+    private boolean isTerminal(int node) {
+        return (this.terminal[node >>> 6] & (1L << node)) != 0;
+    }
+
+    private static String sanitize(String str) {
+        return str.toLowerCase(Locale.ROOT).trim();
+    }
+}
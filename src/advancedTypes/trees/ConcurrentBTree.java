@@ -0,0 +1,288 @@
+package advancedTypes.trees;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ConcurrentBTree is a B-Tree of distinct int keys that many threads can search and insert into at once without a
+ * global lock, using optimistic lock coupling (Leis, Scheibner, Kemper, Neumann: The ART of Practical
+ * Synchronization, 2016).
+ *
+ * Every node carries a version word, even while the node is unlocked and odd while a writer holds it. every unlock
+ * moves it to the next even value, so a writer that came and went is always visible as a changed version.
+ * - a reader records the version, reads the node without locking it, then validates that the version is unchanged. a
+ *   changed version means a writer touched the node meanwhile and the operation restarts from the root
+ * - lock coupling: a reader moves to a child only after re-validating the parent once it has the child's version, so
+ *   the child it reached is still the right one. it never holds a lock and never writes shared memory
+ * - a writer upgrades the version it read to a lock with one CAS, which fails (and restarts) if the node changed since
+ * - inserts split full nodes on the way down, like BTree.insertNonFull. a split write-locks exactly the parent and the
+ *   full child, the new right sibling is unreachable until the parent is unlocked. a root split locks only the root
+ * - an insert into a leaf locks just that leaf, every other node on the path is only read
+ *
+ * Node contents are plain fields, so a reader can observe a node halfway through a write. nothing read from a node is
+ * acted on before the node validates, and array indexes are clamped so a torn key count stays in bounds.
+ *
+ * Search waits only while a writer holds the one node it is about to read, it takes no lock. keys cannot be deleted:
+ * merges would have to lock siblings as well, use BTree for a tree that shrinks.
+ */
+public class ConcurrentBTree {
+    private static final int DEFAULT_MIN_DEGREE = 16;
+    private static final long LOCKED = 1L;
+    private static final int SPINS_BEFORE_YIELD = 64;
+    // trySearch/tryInsert results
+    private static final int ABSENT = 0;
+    private static final int PRESENT = 1;
+    private static final int INSERTED = 2;
+    private static final int RESTART = 3;
+    private static final int SPLIT = 4;
+
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(Node.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final class Node {
+        volatile long version;
+        final boolean leaf;
+        final int[] keys;
+        // null for leaves
+        final Node[] children;
+        int keyCount;
+
+        Node(int minDegree, boolean leaf) {
+            this.leaf = leaf;
+            this.keys = new int[2 * minDegree - 1];
+            this.children = leaf ? null : new Node[2 * minDegree];
+        }
+    }
+
+    private final int minDegree;
+    private final int maxKeys;
+    private volatile Node root;
+    private final LongAdder size = new LongAdder();
+    private final LongAdder restarts = new LongAdder();
+
+    public ConcurrentBTree() {
+        this(DEFAULT_MIN_DEGREE);
+    }
+
+    /**
+     * @param minDegree t >= 2. a node holds up to 2t - 1 keys
+     */
+    public ConcurrentBTree(int minDegree) {
+        if (minDegree < 2) throw new IllegalArgumentException("minDegree: " + minDegree + " must be at least 2");
+        this.minDegree = minDegree;
+        this.maxKeys = 2 * minDegree - 1;
+        this.root = new Node(minDegree, true);
+    }
+
+    /**
+     * Version of node once no writer holds it. spins briefly, then yields, so a writer that was descheduled while
+     * holding the node can finish.
+     */
+    private static long readVersion(Node node) {
+        long version = node.version;
+        for (int spins = 0; (version & LOCKED) != 0; spins++) {
+            if (spins < SPINS_BEFORE_YIELD) Thread.onSpinWait();
+            else Thread.yield();
+            version = node.version;
+        }
+        return version;
+    }
+
+    /**
+     * True if node is unchanged since version was read. the fence keeps the plain reads of the node before the
+     * version re-read, as in StampedLock.validate.
+     */
+    private static boolean validate(Node node, long version) {
+        VarHandle.acquireFence();
+        return node.version == version;
+    }
+
+    private static boolean tryLock(Node node, long version) {
+        return VERSION.compareAndSet(node, version, version + LOCKED);
+    }
+
+    private static void unlock(Node node) {
+        node.version = node.version + LOCKED;
+    }
+
+    /**
+     * First index in keys[0, count) whose key is >= key.
+     */
+    private static int lowerBound(int[] keys, int count, int key) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Search
+     * - optimistic descent from the root, validating every node after reading it
+     * - restart from the root if a writer changed a node on the path
+     * Time: O(log n) without contention
+     * Space: O(1), allocates nothing
+     * @param key
+     * @return true if key is in the tree
+     */
+    public boolean search(int key) {
+        for (;;) {
+            int result = this.trySearch(key);
+            if (result != RESTART) return result == PRESENT;
+            this.restarts.increment();
+        }
+    }
+
+    private int trySearch(int key) {
+        Node node = this.root;
+        long version = readVersion(node);
+        // the root was split after we read it, its old subtree no longer holds every key
+        if (node != this.root) return RESTART;
+        for (;;) {
+            int count = Math.min(node.keyCount, this.maxKeys);
+            int i = lowerBound(node.keys, count, key);
+            boolean found = i < count && node.keys[i] == key;
+            if (found || node.leaf) {
+                if (!validate(node, version)) return RESTART;
+                return found ? PRESENT : ABSENT;
+            }
+            Node child = node.children[i];
+            if (!validate(node, version)) return RESTART;
+            long childVersion = readVersion(child);
+            if (!validate(node, version)) return RESTART;
+            node = child;
+            version = childVersion;
+        }
+    }
+
+    /**
+     * Insert key if absent, single pass top down. a full node on the path is split under the locks of it and its
+     * parent, and the insert then retries from the root, so the leaf we finally lock always has room.
+     * Time: O(log n) without contention
+     * Space: O(1), plus one node per split
+     * @param key
+     * @return true if key was added, false if it was already present
+     */
+    public boolean insert(int key) {
+        for (;;) {
+            int result = this.tryInsert(key);
+            if (result == INSERTED) {
+                this.size.increment();
+                return true;
+            }
+            if (result == PRESENT) return false;
+            if (result == RESTART) this.restarts.increment();
+        }
+    }
+
+    private int tryInsert(int key) {
+        Node parent = null;
+        long parentVersion = 0;
+        int parentIndex = 0;
+        Node node = this.root;
+        long version = readVersion(node);
+        if (node != this.root) return RESTART;
+        for (;;) {
+            if (node.keyCount == this.maxKeys) {
+                // the parent has room: it was split before we descended from it, and its lock fails if it changed
+                if (parent != null && !tryLock(parent, parentVersion)) return RESTART;
+                if (!tryLock(node, version)) {
+                    if (parent != null) unlock(parent);
+                    return RESTART;
+                }
+                if (parent == null && node != this.root) {
+                    unlock(node);
+                    return RESTART;
+                }
+                this.splitChild(parent, parentIndex, node);
+                unlock(node);
+                if (parent != null) unlock(parent);
+                return SPLIT;
+            }
+            int count = Math.min(node.keyCount, this.maxKeys);
+            int i = lowerBound(node.keys, count, key);
+            if (i < count && node.keys[i] == key) {
+                return validate(node, version) ? PRESENT : RESTART;
+            }
+            if (node.leaf) {
+                if (!tryLock(node, version)) return RESTART;
+                // locked at the version we searched, so i and count still hold
+                System.arraycopy(node.keys, i, node.keys, i + 1, count - i);
+                node.keys[i] = key;
+                node.keyCount = count + 1;
+                unlock(node);
+                return INSERTED;
+            }
+            Node child = node.children[i];
+            if (!validate(node, version)) return RESTART;
+            long childVersion = readVersion(child);
+            if (!validate(node, version)) return RESTART;
+            parent = node;
+            parentVersion = version;
+            parentIndex = i;
+            node = child;
+            version = childVersion;
+        }
+    }
+
+    /**
+     * Split the full node, child index of parent, with both write-locked: keys [0, t - 1) stay, key t - 1 moves up,
+     * keys [t, 2t - 1) and their children move to a new right node. parent null means node is the root, a new root is
+     * published with the volatile write of this.root.
+     */
+    private void splitChild(Node parent, int index, Node node) {
+        int t = this.minDegree;
+        Node right = new Node(t, node.leaf);
+        int median = node.keys[t - 1];
+        System.arraycopy(node.keys, t, right.keys, 0, t - 1);
+        right.keyCount = t - 1;
+        if (!node.leaf) {
+            System.arraycopy(node.children, t, right.children, 0, t);
+            Arrays.fill(node.children, t, 2 * t, null);
+        }
+        node.keyCount = t - 1;
+
+        if (parent == null) {
+            Node newRoot = new Node(t, false);
+            newRoot.keys[0] = median;
+            newRoot.children[0] = node;
+            newRoot.children[1] = right;
+            newRoot.keyCount = 1;
+            this.root = newRoot;
+            return;
+        }
+        int count = parent.keyCount;
+        System.arraycopy(parent.keys, index, parent.keys, index + 1, count - index);
+        parent.keys[index] = median;
+        System.arraycopy(parent.children, index + 1, parent.children, index + 2, count - index);
+        parent.children[index + 1] = right;
+        parent.keyCount = count + 1;
+    }
+
+    /**
+     * Number of keys. exact when no writer is running, an estimate otherwise.
+     */
+    public int size() {
+        return (int) Math.min(this.size.sum(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Number of times an operation restarted from the root because a writer changed a node it had read. splits are
+     * not counted.
+     */
+    public long restarts() {
+        return this.restarts.sum();
+    }
+}
@@ -0,0 +1,164 @@
+package advancedTypes.trees;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Throughput comparison of ConcurrentBTree against a BTree2 guarded by one coarse lock and by a read-write lock.
+ *
+ * Each tree is pre-filled with the even keys of [0, KEY_SPACE). each run starts N threads that hammer it with a 90%
+ * search / 10% insert mix of random keys for RUN_MILLIS, then reports million operations per second. the warmup runs on
+ * a tree of its own, so the measured tree starts with every odd key absent: about half of the inserts add a new key
+ * and half find the key present, shifting towards present as the run fills the tree. Thread counts go from 1 to 32.
+ *
+ * This is a plain main() harness, not JMH. run it with -server and a fixed heap (e.g. -Xms2g -Xmx2g) on a machine with
+ * as many cores as the largest thread count and treat the numbers as relative, not absolute.
+ */
+public class ConcurrentBTreeBenchmark {
+    private static final int KEY_SPACE = 1 << 21;
+    private static final int MIN_DEGREE = 16;
+    private static final int READ_PERCENT = 90;
+    private static final int WARMUP_MILLIS = 500;
+    private static final int RUN_MILLIS = 1000;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+
+    private interface Tree {
+        boolean search(int key);
+
+        void insert(int key);
+    }
+
+    /**
+     * The baseline: every operation serializes on one monitor.
+     */
+    private static class CoarseLockedTree implements Tree {
+        private final BTree2 tree = new BTree2(MIN_DEGREE);
+
+        public synchronized boolean search(int key) {
+            return this.tree.search(key);
+        }
+
+        public synchronized void insert(int key) {
+            if (!this.tree.search(key)) this.tree.insert(key);
+        }
+    }
+
+    /**
+     * Searches share the lock, inserts take it exclusively. every search still writes the lock's reader count.
+     */
+    private static class ReadWriteLockedTree implements Tree {
+        private final BTree2 tree = new BTree2(MIN_DEGREE);
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        public boolean search(int key) {
+            this.lock.readLock().lock();
+            try {
+                return this.tree.search(key);
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        public void insert(int key) {
+            this.lock.writeLock().lock();
+            try {
+                if (!this.tree.search(key)) this.tree.insert(key);
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static class OptimisticTree implements Tree {
+        private final ConcurrentBTree tree = new ConcurrentBTree(MIN_DEGREE);
+
+        public boolean search(int key) {
+            return this.tree.search(key);
+        }
+
+        public void insert(int key) {
+            this.tree.insert(key);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%-8s %18s %18s %20s %12s%n", "threads", "coarse (Mops/s)", "rwlock (Mops/s)",
+                "optimistic (Mops/s)", "restarts");
+        for (int threads : THREAD_COUNTS) {
+            double coarse = run(new CoarseLockedTree(), new CoarseLockedTree(), threads);
+            double readWrite = run(new ReadWriteLockedTree(), new ReadWriteLockedTree(), threads);
+            OptimisticTree optimistic = new OptimisticTree();
+            double olc = run(new OptimisticTree(), optimistic, threads);
+            System.out.printf("%-8d %18.2f %18.2f %20.2f %12d%n", threads, coarse, readWrite, olc,
+                    optimistic.tree.restarts());
+        }
+    }
+
+    /**
+     * Warm up on one tree, then measure on another of the same kind. the warmup inserts would otherwise leave the
+     * measured run mostly finding its insert keys present.
+     * @return million operations per second on tree
+     */
+    private static double run(Tree warmup, Tree tree, int threads) throws InterruptedException {
+        fill(warmup);
+        measure(warmup, threads, WARMUP_MILLIS);
+        fill(tree);
+        long ops = measure(tree, threads, RUN_MILLIS);
+        return ops / (RUN_MILLIS * 1000.0);
+    }
+
+    private static void fill(Tree tree) {
+        for (int key = 0; key < KEY_SPACE; key += 2) {
+            tree.insert(key);
+        }
+    }
+
+    /**
+     * @return total operations completed by all threads within millis
+     */
+    private static long measure(Tree tree, int threads, int millis) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        LongAdder found = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] deadline = new long[1];
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                long hits = 0;
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        // check the clock once per batch so nanoTime does not dominate
+                        for (int i = 0; i < 256; i++) {
+                            int key = random.nextInt(KEY_SPACE);
+                            if (random.nextInt(100) < READ_PERCENT) {
+                                if (tree.search(key)) hits += 1;
+                            } else {
+                                tree.insert(key);
+                            }
+                        }
+                        count += 256;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    ops.add(count);
+                    // keeps the search results live
+                    found.add(hits);
+                    done.countDown();
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+        deadline[0] = System.nanoTime() + millis * 1_000_000L;
+        start.countDown();
+        done.await();
+        return ops.sum();
+    }
+}
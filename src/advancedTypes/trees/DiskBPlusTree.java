@@ -0,0 +1,435 @@
+package advancedTypes.trees;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * DiskBPlusTree is a B+Tree from int keys to long values stored in fixed-size pages of a file, for indexes larger than
+ * the heap. pages are accessed through a bounded BufferPool, so memory use is capacity * PAGE_SIZE whatever the size
+ * of the tree.
+ *
+ * B+Tree rather than BTree: all values live in the leaves, internal nodes only hold separator keys, so an internal
+ * page fits over 500 children and the tree stays 3-4 levels deep for hundreds of millions of keys. leaves are linked
+ * left to right, so rangeScan descends once and then reads leaves sequentially.
+ *
+ * Page layout (little endian):
+ * - page 0: meta page with magic, root page id, height and size
+ * - node header: type (LEAF or INTERNAL) at 0, key count at 4, right sibling at 8 (leaves only, NONE for the last)
+ * - leaf: keys int[LEAF_CAPACITY] then values long[LEAF_CAPACITY]
+ * - internal: keys int[INTERNAL_CAPACITY] then children int[INTERNAL_CAPACITY + 1]. child i holds the keys in
+ *   [keys[i - 1], keys[i])
+ *
+ * Only a handful of pages are pinned at any time: a node is unpinned before descending into its child and pinned
+ * again only if the child split.
+ *
+ * delete removes the entry from its leaf without merging underfull leaves (empty leaves stay linked and are skipped
+ * by scans), the usual trade-off for on-disk B+Trees where deletes are rare compared to inserts. not thread-safe.
+ */
+public class DiskBPlusTree implements Closeable {
+    private static final int MAGIC = 0x42505431; // "BPT1"
+    private static final int META_PAGE = 0;
+    private static final int NONE = -1;
+    private static final int LEAF = 1;
+    private static final int INTERNAL = 2;
+
+    private static final int TYPE_OFFSET = 0;
+    private static final int COUNT_OFFSET = 4;
+    private static final int NEXT_OFFSET = 8;
+    private static final int HEADER_SIZE = 16;
+    static final int LEAF_CAPACITY = (BufferPool.PAGE_SIZE - HEADER_SIZE) / (4 + 8);
+    static final int INTERNAL_CAPACITY = (BufferPool.PAGE_SIZE - HEADER_SIZE - 4) / (4 + 4);
+    private static final int LEAF_VALUES = HEADER_SIZE + 4 * LEAF_CAPACITY;
+    private static final int INTERNAL_CHILDREN = HEADER_SIZE + 4 * INTERNAL_CAPACITY;
+
+    /**
+     * Receives the entries of a rangeScan in key order.
+     */
+    public interface EntryConsumer {
+        void accept(int key, long value);
+    }
+
+    private final BufferPool pool;
+    private int rootPage;
+    private int height;
+    private long size;
+    // set by insertRecursive when the node it was called on split
+    private int splitKey;
+    private int splitPage;
+    // set by insertRecursive when the key was new rather than updated
+    private boolean inserted;
+
+    /**
+     * Open the tree stored in file, or create an empty one.
+     * @param file
+     * @param poolPages buffer pool capacity in pages
+     * @throws IOException
+     */
+    public DiskBPlusTree(Path file, int poolPages) throws IOException {
+        this.pool = new BufferPool(file, poolPages);
+        if (this.pool.pageCount() == 0) {
+            BufferPool.Frame meta = this.pool.allocate();
+            BufferPool.Frame root = this.pool.allocate();
+            initNode(root.data(), LEAF);
+            this.rootPage = root.pageId();
+            this.height = 1;
+            this.size = 0;
+            this.pool.unpin(root, true);
+            this.pool.unpin(meta, true);
+            this.writeMeta();
+        } else {
+            BufferPool.Frame meta = this.pool.pin(META_PAGE);
+            ByteBuffer data = meta.data();
+            int magic = data.getInt(0);
+            this.rootPage = data.getInt(4);
+            this.height = data.getInt(8);
+            this.size = data.getLong(12);
+            this.pool.unpin(meta, false);
+            if (magic != MAGIC) {
+                this.pool.close();
+                throw new IOException(file + " is not a B+Tree file");
+            }
+        }
+    }
+
+    /**
+     * Look up the value stored for key.
+     * Time: O(log n), one page per level
+     * @param key
+     * @return the value, or null if key is absent
+     */
+    public Long search(int key) {
+        BufferPool.Frame frame = this.findLeaf(key);
+        ByteBuffer data = frame.data();
+        int count = data.getInt(COUNT_OFFSET);
+        int position = lowerBound(data, count, key);
+        Long value = position < count && data.getInt(keyOffset(position)) == key
+                ? data.getLong(leafValueOffset(position))
+                : null;
+        this.pool.unpin(frame, false);
+        return value;
+    }
+
+    /**
+     * Insert key, or replace its value if it is already present.
+     * Time: O(log n) pages
+     * @param key
+     * @param value
+     */
+    public void insert(int key, long value) {
+        this.inserted = false;
+        if (this.insertRecursive(this.rootPage, key, value)) {
+            // the root split: grow a new root above the two halves
+            BufferPool.Frame frame = this.pool.allocate();
+            ByteBuffer data = frame.data();
+            initNode(data, INTERNAL);
+            data.putInt(COUNT_OFFSET, 1);
+            data.putInt(keyOffset(0), this.splitKey);
+            data.putInt(childOffset(0), this.rootPage);
+            data.putInt(childOffset(1), this.splitPage);
+            this.rootPage = frame.pageId();
+            this.height += 1;
+            this.pool.unpin(frame, true);
+        }
+        if (this.inserted) this.size += 1;
+    }
+
+    /**
+     * @return true if the node at pageId split, with the separator and new right page in splitKey/splitPage
+     */
+    private boolean insertRecursive(int pageId, int key, long value) {
+        BufferPool.Frame frame = this.pool.pin(pageId);
+        ByteBuffer data = frame.data();
+        int count = data.getInt(COUNT_OFFSET);
+
+        if (data.getInt(TYPE_OFFSET) == LEAF) {
+            int position = lowerBound(data, count, key);
+            if (position < count && data.getInt(keyOffset(position)) == key) {
+                data.putLong(leafValueOffset(position), value);
+                this.pool.unpin(frame, true);
+                return false;
+            }
+            this.inserted = true;
+            if (count < LEAF_CAPACITY) {
+                leafInsertAt(data, count, position, key, value);
+                this.pool.unpin(frame, true);
+                return false;
+            }
+            this.splitLeaf(frame, position, key, value);
+            return true;
+        }
+
+        int index = upperBound(data, count, key);
+        int child = data.getInt(childOffset(index));
+        this.pool.unpin(frame, false);
+        if (!this.insertRecursive(child, key, value)) return false;
+
+        // the child split: add its separator here, nothing else changed this node in between
+        frame = this.pool.pin(pageId);
+        data = frame.data();
+        if (count < INTERNAL_CAPACITY) {
+            internalInsertAt(data, count, index, this.splitKey, this.splitPage);
+            this.pool.unpin(frame, true);
+            return false;
+        }
+        this.splitInternal(frame, index, this.splitKey, this.splitPage);
+        return true;
+    }
+
+    /**
+     * Split a full leaf in two and insert the entry into the correct half. the leaf stays pinned until done.
+     */
+    private void splitLeaf(BufferPool.Frame frame, int position, int key, long value) {
+        ByteBuffer data = frame.data();
+        int count = data.getInt(COUNT_OFFSET);
+        BufferPool.Frame right = this.pool.allocate();
+        ByteBuffer rightData = right.data();
+        initNode(rightData, LEAF);
+        // appending past the last key of the last leaf (ascending load): keep the old leaf full instead of half empty
+        boolean append = position == count && data.getInt(NEXT_OFFSET) == NONE;
+        int moveFrom = append ? count : count / 2;
+        for (int i = moveFrom; i < count; i++) {
+            rightData.putInt(keyOffset(i - moveFrom), data.getInt(keyOffset(i)));
+            rightData.putLong(leafValueOffset(i - moveFrom), data.getLong(leafValueOffset(i)));
+        }
+        int rightCount = count - moveFrom;
+        data.putInt(COUNT_OFFSET, moveFrom);
+        rightData.putInt(COUNT_OFFSET, rightCount);
+        rightData.putInt(NEXT_OFFSET, data.getInt(NEXT_OFFSET));
+        data.putInt(NEXT_OFFSET, right.pageId());
+
+        if (position < moveFrom) {
+            leafInsertAt(data, moveFrom, position, key, value);
+        } else {
+            leafInsertAt(rightData, rightCount, position - moveFrom, key, value);
+        }
+        this.splitKey = rightData.getInt(keyOffset(0));
+        this.splitPage = right.pageId();
+        this.pool.unpin(right, true);
+        this.pool.unpin(frame, true);
+    }
+
+    /**
+     * Split a full internal node while inserting separator key + right child at index. the middle key moves up.
+     */
+    private void splitInternal(BufferPool.Frame frame, int index, int key, int child) {
+        ByteBuffer data = frame.data();
+        int count = data.getInt(COUNT_OFFSET);
+        // lay out the overfull node in scratch arrays, splits are rare enough for the allocation not to matter
+        int[] keys = new int[count + 1];
+        int[] children = new int[count + 2];
+        for (int i = 0, k = 0; i <= count; i++) {
+            keys[i] = i == index ? key : data.getInt(keyOffset(k++));
+        }
+        for (int i = 0, c = 0; i <= count + 1; i++) {
+            children[i] = i == index + 1 ? child : data.getInt(childOffset(c++));
+        }
+        int middle = (count + 1) / 2;
+
+        BufferPool.Frame right = this.pool.allocate();
+        ByteBuffer rightData = right.data();
+        initNode(rightData, INTERNAL);
+        for (int i = 0; i < middle; i++) {
+            data.putInt(keyOffset(i), keys[i]);
+            data.putInt(childOffset(i), children[i]);
+        }
+        data.putInt(childOffset(middle), children[middle]);
+        data.putInt(COUNT_OFFSET, middle);
+        int rightCount = count - middle;
+        for (int i = 0; i < rightCount; i++) {
+            rightData.putInt(keyOffset(i), keys[middle + 1 + i]);
+            rightData.putInt(childOffset(i), children[middle + 1 + i]);
+        }
+        rightData.putInt(childOffset(rightCount), children[count + 1]);
+        rightData.putInt(COUNT_OFFSET, rightCount);
+
+        this.splitKey = keys[middle];
+        this.splitPage = right.pageId();
+        this.pool.unpin(right, true);
+        this.pool.unpin(frame, true);
+    }
+
+    /**
+     * Remove key from its leaf. leaves are not merged, see the class comment.
+     * Time: O(log n) pages
+     * @param key
+     * @return true if the key was present
+     */
+    public boolean delete(int key) {
+        BufferPool.Frame frame = this.findLeaf(key);
+        ByteBuffer data = frame.data();
+        int count = data.getInt(COUNT_OFFSET);
+        int position = lowerBound(data, count, key);
+        if (position == count || data.getInt(keyOffset(position)) != key) {
+            this.pool.unpin(frame, false);
+            return false;
+        }
+        for (int i = position; i < count - 1; i++) {
+            data.putInt(keyOffset(i), data.getInt(keyOffset(i + 1)));
+            data.putLong(leafValueOffset(i), data.getLong(leafValueOffset(i + 1)));
+        }
+        data.putInt(COUNT_OFFSET, count - 1);
+        this.pool.unpin(frame, true);
+        this.size -= 1;
+        return true;
+    }
+
+    /**
+     * Pass every entry with from <= key <= to to consumer, in key order: one descent, then along the leaf chain.
+     * Time: O(log n + k / LEAF_CAPACITY) pages
+     * - where k is the number of entries in the range
+     * @param from inclusive
+     * @param to inclusive
+     * @param consumer
+     * @return number of entries visited
+     */
+    public long rangeScan(int from, int to, EntryConsumer consumer) {
+        if (from > to) return 0;
+        BufferPool.Frame frame = this.findLeaf(from);
+        ByteBuffer data = frame.data();
+        int position = lowerBound(data, data.getInt(COUNT_OFFSET), from);
+        long visited = 0;
+        while (true) {
+            int count = data.getInt(COUNT_OFFSET);
+            for (; position < count; position++) {
+                int key = data.getInt(keyOffset(position));
+                if (key > to) {
+                    this.pool.unpin(frame, false);
+                    return visited;
+                }
+                consumer.accept(key, data.getLong(leafValueOffset(position)));
+                visited += 1;
+            }
+            int next = data.getInt(NEXT_OFFSET);
+            this.pool.unpin(frame, false);
+            if (next == NONE) return visited;
+            frame = this.pool.pin(next);
+            data = frame.data();
+            position = 0;
+        }
+    }
+
+    /**
+     * Descend to the leaf that would hold key, pinning one page at a time.
+     * @return the leaf, pinned
+     */
+    private BufferPool.Frame findLeaf(int key) {
+        BufferPool.Frame frame = this.pool.pin(this.rootPage);
+        while (frame.data().getInt(TYPE_OFFSET) == INTERNAL) {
+            ByteBuffer data = frame.data();
+            int child = data.getInt(childOffset(upperBound(data, data.getInt(COUNT_OFFSET), key)));
+            this.pool.unpin(frame, false);
+            frame = this.pool.pin(child);
+        }
+        return frame;
+    }
+
+    /**
+     * First index whose key is >= key.
+     */
+    private static int lowerBound(ByteBuffer data, int count, int key) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (data.getInt(keyOffset(mid)) < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * First index whose key is > key, i.e. the child of an internal node to descend into.
+     */
+    private static int upperBound(ByteBuffer data, int count, int key) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (data.getInt(keyOffset(mid)) <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static void leafInsertAt(ByteBuffer data, int count, int position, int key, long value) {
+        for (int i = count; i > position; i--) {
+            data.putInt(keyOffset(i), data.getInt(keyOffset(i - 1)));
+            data.putLong(leafValueOffset(i), data.getLong(leafValueOffset(i - 1)));
+        }
+        data.putInt(keyOffset(position), key);
+        data.putLong(leafValueOffset(position), value);
+        data.putInt(COUNT_OFFSET, count + 1);
+    }
+
+    private static void internalInsertAt(ByteBuffer data, int count, int index, int key, int rightChild) {
+        for (int i = count; i > index; i--) {
+            data.putInt(keyOffset(i), data.getInt(keyOffset(i - 1)));
+            data.putInt(childOffset(i + 1), data.getInt(childOffset(i)));
+        }
+        data.putInt(keyOffset(index), key);
+        data.putInt(childOffset(index + 1), rightChild);
+        data.putInt(COUNT_OFFSET, count + 1);
+    }
+
+    private static void initNode(ByteBuffer data, int type) {
+        data.putInt(TYPE_OFFSET, type);
+        data.putInt(COUNT_OFFSET, 0);
+        data.putInt(NEXT_OFFSET, NONE);
+    }
+
+    private static int keyOffset(int index) {
+        return HEADER_SIZE + 4 * index;
+    }
+
+    private static int leafValueOffset(int index) {
+        return LEAF_VALUES + 8 * index;
+    }
+
+    private static int childOffset(int index) {
+        return INTERNAL_CHILDREN + 4 * index;
+    }
+
+    private void writeMeta() {
+        BufferPool.Frame meta = this.pool.pin(META_PAGE);
+        ByteBuffer data = meta.data();
+        data.putInt(0, MAGIC);
+        data.putInt(4, this.rootPage);
+        data.putInt(8, this.height);
+        data.putLong(12, this.size);
+        this.pool.unpin(meta, true);
+    }
+
+    /**
+     * Write the meta page and every dirty page to the file.
+     */
+    public void flush() {
+        this.writeMeta();
+        this.pool.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.writeMeta();
+        this.pool.close();
+    }
+
+    public long size() {
+        return this.size;
+    }
+
+    public int height() {
+        return this.height;
+    }
+
+    public BufferPool pool() {
+        return this.pool;
+    }
+}
@@ -0,0 +1,83 @@
+package advancedTypes.trees;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Point and range throughput of DiskBPlusTree with a buffer pool much smaller than the tree.
+ *
+ * - load: KEYS ascending even keys (value = index), written through the pool
+ * - point: LOOKUPS random searches, half of them for absent (odd) keys
+ * - range: SCANS random scans of RANGE_WIDTH consecutive keys
+ *
+ * Usage: DiskBPlusTreeBenchmark [keys] [poolPages]. the defaults, 50M keys and a 64 MB pool, give a file of about
+ * 600 MB. the file is created in the temp directory and deleted afterwards. the OS page cache still sits below the
+ * pool, drop it (or use a larger dataset) to measure real disk reads.
+ *
+ * This is a plain main() harness, not JMH. treat the numbers as relative.
+ */
+public class DiskBPlusTreeBenchmark {
+    private static final int DEFAULT_KEYS = 50_000_000;
+    private static final int DEFAULT_POOL_PAGES = 16_384;
+    private static final int LOOKUPS = 2_000_000;
+    private static final int SCANS = 20_000;
+    private static final int RANGE_WIDTH = 1_000;
+
+    public static void main(String[] args) throws IOException {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_KEYS;
+        int poolPages = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_POOL_PAGES;
+        Path file = Files.createTempFile("bplustree", ".db");
+        Files.delete(file);
+        try (DiskBPlusTree tree = new DiskBPlusTree(file, poolPages)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < keys; i++) {
+                tree.insert(2 * i, i);
+            }
+            tree.flush();
+            report("load", keys, start);
+            System.out.printf("height %d, %d pages (%d MB), pool %d pages (%d MB)%n", tree.height(),
+                    tree.pool().pageCount(), ((long) tree.pool().pageCount() * BufferPool.PAGE_SIZE) >> 20,
+                    poolPages, ((long) poolPages * BufferPool.PAGE_SIZE) >> 20);
+
+            Random random = new Random(42);
+            long found = 0;
+            long hits = tree.pool().hits();
+            long misses = tree.pool().misses();
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                if (tree.search(random.nextInt(2 * keys)) != null) found += 1;
+            }
+            report("point search", LOOKUPS, start);
+            System.out.printf("  found %d, pool hit rate %.3f%n", found,
+                    hitRate(tree.pool().hits() - hits, tree.pool().misses() - misses));
+
+            long[] checksum = new long[1];
+            long entries = 0;
+            hits = tree.pool().hits();
+            misses = tree.pool().misses();
+            start = System.nanoTime();
+            for (int i = 0; i < SCANS; i++) {
+                int from = random.nextInt(2 * keys);
+                entries += tree.rangeScan(from, from + 2 * RANGE_WIDTH - 1, (key, value) -> checksum[0] += value);
+            }
+            report("range scan", SCANS, start);
+            System.out.printf("  %d entries, %.1f M entries/s, pool hit rate %.3f (checksum %d)%n", entries,
+                    entries * 1000.0 / (System.nanoTime() - start),
+                    hitRate(tree.pool().hits() - hits, tree.pool().misses() - misses), checksum[0]);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static double hitRate(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    private static void report(String label, long operations, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        System.out.printf("%-14s %10d ops %8d ms %12.0f ops/s%n", label, operations, elapsed / 1_000_000,
+                operations * 1e9 / elapsed);
+    }
+}
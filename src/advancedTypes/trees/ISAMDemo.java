@@ -1,6 +1,10 @@
 package advancedTypes.trees;
 
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Implementation of Index Sequential Access Methods data structure.
@@ -9,14 +13,23 @@ import java.util.*;
  *      - fixed page size, fixed max records per page
  *      - record(int key, value) // value can be string or int
  *      - keep everything in memory
+ *
+ * Concurrency
+ *      - the data pages and the index built over them form one Layout, published through a volatile field. a reader
+ *        loads it once and runs entirely on it
+ *      - insert never changes a page in place: it replaces the page's record list with a copy holding the new record
+ *        (pages are small), and links a fully built overflow page. readers never lock and always see whole pages
+ *      - inserts, build and the swap at the end of rebuild serialize on writeLock
+ *      - rebuild builds a fresh Layout off to the side while readers and inserts keep using the current one, then
+ *        swaps it in atomically
  */
 class ISAM {
     private static final int DATA_PAGE_SIZE = 4;
     private static final int OVERFLOW_PAGE_SIZE = 4;
 
     private static class Record implements Comparable<Record> {
-        int key;
-        int value;
+        final int key;
+        final int value;
 
         Record(int key, int value) {
             this.key = key;
@@ -36,64 +49,83 @@ class ISAM {
         }
     }
 
+    /**
+     * Copy of sorted records with record added after any equal keys. replaces a full List.sort on every insert.
+     */
+    private static List<Record> withRecord(List<Record> records, Record record) {
+        int low = 0, high = records.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (records.get(mid).key <= record.key) low = mid + 1;
+            else high = mid;
+        }
+        List<Record> copy = new ArrayList<>(records.size() + 1);
+        copy.addAll(records.subList(0, low));
+        copy.add(record);
+        copy.addAll(records.subList(low, records.size()));
+        return copy;
+    }
+
     private static class DataPage {
-        List<Record> records; // sorted list of records
-        OverflowPage overflow; // pointer to first overflow page
+        volatile List<Record> records; // sorted list of records, replaced (never modified) on insert
+        volatile OverflowPage overflow; // pointer to first overflow page
+        DataPage next; // next data page in key order, set at build time
 
         DataPage() {
             this.records = new ArrayList<>();
             this.overflow = null;
         }
 
-        public void insert(int key, int value) {
+        /**
+         * @return number of overflow pages walked or created, the chain length if the record went to overflow
+         */
+        public int insert(int key, int value) {
             Record record = new Record(key, value);
 
             // 1. insert into primary page if space available
             if (this.records.size() < DATA_PAGE_SIZE) {
-                this.records.add(record);
-                this.records.sort(Comparator.naturalOrder());
-                return;
+                this.records = withRecord(this.records, record);
+                return 0;
             }
             // 2. primary page is full -> walk overflow chain
             if (this.overflow == null) {
-                this.overflow = new OverflowPage();
-                this.overflow.insert(record);
-                return;
+                this.overflow = new OverflowPage(record);
+                return 1;
             }
 
             OverflowPage prev = null;
             OverflowPage current = this.overflow;
+            int length = 0;
 
-            // walk to find first non-null overflow page
+            // walk to find first non-full overflow page
             while (current != null && current.isFull()) {
                 prev = current;
                 current = current.next;
+                length += 1;
             }
 
             if (current == null) {
                 // reached end of chain, append new page
-                OverflowPage newPage = new OverflowPage();
-                newPage.insert(record);
-                prev.next = newPage;
+                prev.next = new OverflowPage(record);
             } else {
                 // found a page with space
                 current.insert(record);
             }
+            return length + 1;
         }
     }
 
     private static class OverflowPage {
-        List<Record> overflowRecords; // list of overflow records
-        OverflowPage next; // next overflow page
+        volatile List<Record> overflowRecords; // sorted list of overflow records, replaced on insert
+        volatile OverflowPage next; // next overflow page
 
-        OverflowPage() {
-            this.overflowRecords = new ArrayList<>();
+        OverflowPage(Record first) {
+            this.overflowRecords = List.of(first);
             this.next = null;
         }
 
         public void insert(Record record) {
-            this.overflowRecords.add(record);
-            this.overflowRecords.sort(Comparator.naturalOrder());
+            this.overflowRecords = withRecord(this.overflowRecords, record);
         }
 
         public boolean isFull() {
@@ -118,12 +150,74 @@ class ISAM {
         }
     }
 
-    private List<DataPage> dataPages; // primary storage
-    private IndexPage rootIndex; // root of multi-level index
+    /**
+     * One built ISAM structure. the lists and index pages never change after the layout is published, only the
+     * records and overflow chains of its data pages grow.
+     */
+    private static class Layout {
+        final List<DataPage> dataPages; // primary storage
+        final IndexPage rootIndex; // root of multi-level index
+
+        Layout(List<DataPage> dataPages, IndexPage rootIndex) {
+            this.dataPages = dataPages;
+            this.rootIndex = rootIndex;
+        }
+    }
+
+    /**
+     * Overflow statistics of one layout.
+     */
+    public static final class ChainStats {
+        public final int dataPages;
+        public final long records;
+        public final long overflowRecords;
+        // data pages with at least one overflow page
+        public final int chains;
+        public final long overflowPages;
+        // overflow pages in the longest chain
+        public final int maxChainLength;
+
+        ChainStats(int dataPages, long records, long overflowRecords, int chains, long overflowPages,
+                   int maxChainLength) {
+            this.dataPages = dataPages;
+            this.records = records;
+            this.overflowRecords = overflowRecords;
+            this.chains = chains;
+            this.overflowPages = overflowPages;
+            this.maxChainLength = maxChainLength;
+        }
+
+        /**
+         * Mean overflow pages per chain, over the data pages that have one.
+         */
+        public double averageChainLength() {
+            return this.chains == 0 ? 0 : (double) this.overflowPages / this.chains;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ChainStats{dataPages=%d, records=%d, overflowRecords=%d, chains=%d, "
+                            + "overflowPages=%d, maxChainLength=%d, averageChainLength=%.2f}", this.dataPages,
+                    this.records, this.overflowRecords, this.chains, this.overflowPages, this.maxChainLength,
+                    this.averageChainLength());
+        }
+    }
+
+    private volatile Layout layout; // null until the first build
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // one rebuild at a time, and build cannot overtake a running rebuild
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // records inserted while a rebuild copies and packs, replayed into the new layout. guarded by writeLock
+    private List<Record> pendingInserts = null;
+    // longest overflow chain an insert has walked in the current layout. guarded by writeLock
+    private int maxChainLength = 0;
+    private long rebuilds = 0;
+    private ScheduledExecutorService reorganizer;
+    // last exception a background rebuild threw, null if none did
+    private volatile RuntimeException reorganizerFailure;
 
     ISAM() {
-        this.dataPages = new ArrayList<>();
-        this.rootIndex = null;
+        this.layout = null;
     }
 
     /**
@@ -151,24 +245,43 @@ class ISAM {
      *         a single root index remains.</li>
      * </ol>
      *
-     * <p>After this method completes, the ISAM structure is fully initialized and
-     * the {@code rootIndex} field refers to the top-most IndexPage.
+     * <p>After this method completes, the new layout replaces any previous contents
+     * and its {@code rootIndex} refers to the top-most IndexPage.
      *
      * @param sortedRecords an array of keys in strictly sorted ascending order.
      *                      The build process assumes sorted input (as in classical ISAM).
      */
     public void build(int[] sortedRecords) {
         if (sortedRecords.length < 1) return;
+        List<Record> records = new ArrayList<>(sortedRecords.length);
+        for (int key : sortedRecords) {
+            records.add(new Record(key, key));
+        }
+        Layout built = this.buildLayout(records);
+        this.rebuildLock.lock();
+        this.writeLock.lock();
+        try {
+            this.layout = built;
+            this.maxChainLength = 0;
+        } finally {
+            this.writeLock.unlock();
+            this.rebuildLock.unlock();
+        }
+    }
 
-        // 1. break records into fixed size DataPages
-        DataPage dataPage = null;
-        for (int i = 0; i < sortedRecords.length; i++) {
-            if (i % DATA_PAGE_SIZE == 0) {
-                // create new page every DATA_PAGE_SIZE records
-                dataPage = new DataPage();
-                this.dataPages.add(dataPage);
-            }
-            dataPage.insert(sortedRecords[i], sortedRecords[i]);
+    /**
+     * Pack sorted records into full DataPages and build the index levels above them.
+     */
+    private Layout buildLayout(List<Record> sortedRecords) {
+        List<DataPage> dataPages = new ArrayList<>((sortedRecords.size() + DATA_PAGE_SIZE - 1) / DATA_PAGE_SIZE);
+
+        // 1. break records into fixed size DataPages, linked in key order
+        for (int i = 0; i < sortedRecords.size(); i += DATA_PAGE_SIZE) {
+            DataPage dataPage = new DataPage();
+            dataPage.records = new ArrayList<>(sortedRecords.subList(i,
+                    Math.min(i + DATA_PAGE_SIZE, sortedRecords.size())));
+            if (!dataPages.isEmpty()) dataPages.get(dataPages.size() - 1).next = dataPage;
+            dataPages.add(dataPage);
         }
 
         // 2. build level 1 IndexPage
@@ -179,12 +292,12 @@ class ISAM {
         //      - children = [c0, c1, c2, ...]
         IndexPage firstLevel = new IndexPage(true);
         // add children (data pages)
-        for (DataPage page : this.dataPages) {
+        for (DataPage page : dataPages) {
             firstLevel.children.add(page);
         }
         // add separator keys: one per child except the last
-        for (int i = 0; i < this.dataPages.size() - 1; i++) {
-            DataPage dp = this.dataPages.get(i);
+        for (int i = 0; i < dataPages.size() - 1; i++) {
+            DataPage dp = dataPages.get(i);
             int maxKey = dp.records.get(dp.records.size() - 1).key;
             firstLevel.keys.add(maxKey);
         }
@@ -194,7 +307,7 @@ class ISAM {
         while (current.keys.size() > IndexPage.FAN_OUT - 1) {
             current = this.buildNextLevel(current);
         }
-        this.rootIndex = current;
+        return new Layout(dataPages, current);
     }
 
     /**
@@ -306,9 +419,10 @@ class ISAM {
      * @return
      */
     public Integer getKey(int key) {
-        if (rootIndex == null) return null;
+        Layout layout = this.layout;
+        if (layout == null) return null;
 
-        DataPage page = this.descendIndex(this.rootIndex, key);
+        DataPage page = this.descendIndex(layout.rootIndex, key);
         if (page == null) return null;
 
         // search primary block
@@ -368,10 +482,11 @@ class ISAM {
      */
     public List<Integer> rangeScan(int low, int high) {
         List<Integer> out = new ArrayList<>();
-        if (rootIndex == null) return out;
+        Layout layout = this.layout;
+        if (layout == null) return out;
         if (low > high) return out;
 
-        DataPage page = this.findStartPageForRange(this.rootIndex, low);
+        DataPage page = this.findStartPageForRange(layout.rootIndex, low);
         if (page == null) return out;
 
         boolean done = false;
@@ -399,7 +514,7 @@ class ISAM {
 
             // 3) move to the next data page if we haven't exceeded 'high'
             if (!done) {
-                page = this.nextDataPage(page);
+                page = page.next;
 
                 // Optional fast-stop: if the next page's smallest primary key is already > high,
                 // then no later primary pages can contribute (data pages are built in sorted order).
@@ -422,11 +537,7 @@ class ISAM {
 
             // edge case: routed to a page whose maxKey < low
             // go to next page if available
-            int idx = this.dataPages.indexOf(dp);
-            if (idx + 1 < this.dataPages.size()) {
-                return this.dataPages.get(idx + 1);
-            }
-            return null;
+            return dp.next;
         }
         // internal node -> recurse down index
         Object child = this.routeToChild(node, low);
@@ -434,15 +545,6 @@ class ISAM {
         return this.findStartPageForRange((IndexPage) child, low);
     }
 
-    private DataPage nextDataPage(DataPage current) {
-        if (current == null) return null;
-        int idx = this.dataPages.indexOf(current);
-        if (idx < 0) return null;
-        int next = idx + 1;
-        if (next >= this.dataPages.size()) return null;
-        return this.dataPages.get(next);
-    }
-
     /**
      * Insert key into ISAM.
      *
@@ -451,21 +553,223 @@ class ISAM {
      *  - We NEVER change the index structure
      *  - All new records go to the overflow chain
      *
-     * To restore full structure, caller must run rebuild().
+     * To restore full structure, run rebuild(), or let startReorganizer() run it once the chains grow too long.
      */
     public void insert(int key) {
-        if (this.rootIndex == null) {
-            // build a 1-page ISAM if empty
-            this.build(new int[] {key});
-            return;
+        this.writeLock.lock();
+        try {
+            Layout layout = this.layout;
+            if (layout == null) {
+                // build a 1-page ISAM if empty
+                this.layout = this.buildLayout(List.of(new Record(key, key)));
+            } else {
+                // 1. route to correct data page
+                DataPage page = this.descendIndex(layout.rootIndex, key);
+
+                // 2. insert into primary or overflow pages
+                int chainLength = page.insert(key, key);
+                this.maxChainLength = Math.max(this.maxChainLength, chainLength);
+            }
+            // 3. a running rebuild packs a copy taken before this insert, it replays these at the swap
+            if (this.pendingInserts != null) this.pendingInserts.add(new Record(key, key));
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Reorganize: merge every overflow chain back into freshly packed DataPages and rebuild the IndexPage levels.
+     *
+     * 1. under writeLock: collect the record lists of every page and start logging inserts. pages are copy on write,
+     *    so this only copies references, O(records)
+     * 2. without any lock: per data page, sort its primary records together with its chain. each page owns a disjoint
+     *    key range in key order, so concatenating the pages gives all records sorted. pack them into new DataPages
+     *    and build the index above them. readers and inserts keep running on the current layout
+     * 3. under writeLock: replay the inserts logged during step 2 into the new layout, then publish it with one
+     *    volatile write. readers that loaded the old layout finish their query on it, it is never written again
+     *
+     * Time: O(n log c), c the records of one page plus its chain. inserts wait only for steps 1 and 3
+     * Space: O(n) for the new layout, the old one is garbage once its last reader is done
+     * @return chain statistics of the layout that was replaced, null if the ISAM is empty
+     */
+    public ChainStats rebuild() {
+        this.rebuildLock.lock();
+        try {
+            // 1. snapshot
+            List<List<Record>> pages;
+            long records = 0;
+            long overflowRecords = 0;
+            int chains = 0;
+            long overflowPages = 0;
+            int maxChainLength = 0;
+            this.writeLock.lock();
+            try {
+                Layout old = this.layout;
+                if (old == null) return null;
+                pages = new ArrayList<>(old.dataPages.size());
+                for (DataPage page : old.dataPages) {
+                    List<Record> merged = page.records;
+                    records += merged.size();
+                    int length = 0;
+                    for (OverflowPage op = page.overflow; op != null; op = op.next) {
+                        if (length == 0) merged = new ArrayList<>(merged);
+                        merged.addAll(op.overflowRecords);
+                        overflowRecords += op.overflowRecords.size();
+                        length += 1;
+                    }
+                    if (length > 0) chains += 1;
+                    overflowPages += length;
+                    maxChainLength = Math.max(maxChainLength, length);
+                    pages.add(merged);
+                }
+                this.pendingInserts = new ArrayList<>();
+            } finally {
+                this.writeLock.unlock();
+            }
+            ChainStats stats = new ChainStats(pages.size(), records + overflowRecords, overflowRecords, chains,
+                    overflowPages, maxChainLength);
+
+            try {
+                // 2. merge and pack off to the side. only merged pages (our own copies) can be out of order
+                List<Record> sorted = new ArrayList<>((int) Math.min(stats.records, Integer.MAX_VALUE));
+                for (List<Record> page : pages) {
+                    if (page.size() > DATA_PAGE_SIZE) page.sort(Comparator.naturalOrder());
+                    sorted.addAll(page);
+                }
+                Layout built = this.buildLayout(sorted);
+
+                // 3. replay and swap
+                this.writeLock.lock();
+                try {
+                    int chainLength = 0;
+                    for (Record record : this.pendingInserts) {
+                        DataPage page = this.descendIndex(built.rootIndex, record.key);
+                        chainLength = Math.max(chainLength, page.insert(record.key, record.value));
+                    }
+                    this.pendingInserts = null;
+                    this.maxChainLength = chainLength;
+                    this.layout = built;
+                    this.rebuilds += 1;
+                } finally {
+                    this.writeLock.unlock();
+                }
+            } catch (RuntimeException e) {
+                // the current layout stays, inserts must stop logging for a swap that will not come
+                this.writeLock.lock();
+                try {
+                    this.pendingInserts = null;
+                } finally {
+                    this.writeLock.unlock();
+                }
+                throw e;
+            }
+            return stats;
+        } finally {
+            this.rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Chain statistics of the current layout, walked without locking, so they may miss inserts running meanwhile.
+     * Time: O(data pages + overflow pages)
+     * @return
+     */
+    public ChainStats chainStats() {
+        Layout layout = this.layout;
+        if (layout == null) return new ChainStats(0, 0, 0, 0, 0, 0);
+        long records = 0;
+        long overflowRecords = 0;
+        int chains = 0;
+        long overflowPages = 0;
+        int maxChainLength = 0;
+        for (DataPage page : layout.dataPages) {
+            records += page.records.size();
+            int length = 0;
+            for (OverflowPage op = page.overflow; op != null; op = op.next) {
+                overflowRecords += op.overflowRecords.size();
+                length += 1;
+            }
+            if (length > 0) chains += 1;
+            overflowPages += length;
+            maxChainLength = Math.max(maxChainLength, length);
+        }
+        return new ChainStats(layout.dataPages.size(), records + overflowRecords, overflowRecords, chains,
+                overflowPages, maxChainLength);
+    }
+
+    /**
+     * Number of completed rebuilds.
+     */
+    public long rebuilds() {
+        this.writeLock.lock();
+        try {
+            return this.rebuilds;
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Start a background reorganizer: every periodMillis a daemon thread checks the longest overflow chain an insert
+     * has walked since the last rebuild, and runs rebuild() once it exceeds maxChainLength. the check is O(1), it does
+     * not walk the pages. a rebuild that throws is kept for reorganizerFailure(), later ticks still run.
+     * @param periodMillis
+     * @param maxChainLength overflow pages a lookup may walk before the ISAM is reorganized
+     */
+    public synchronized void startReorganizer(long periodMillis, int maxChainLength) {
+        if (this.reorganizer != null) throw new IllegalStateException("reorganizer is already running");
+        this.reorganizer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "isam-reorganizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.reorganizerFailure = null;
+        this.reorganizer.scheduleWithFixedDelay(() -> {
+            // an exception escaping the task would silently cancel every later run
+            try {
+                this.reorganizeIfNeeded(maxChainLength);
+            } catch (RuntimeException e) {
+                this.reorganizerFailure = e;
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Run rebuild() if an insert has walked more than maxChainLength overflow pages since the last rebuild. this is
+     * the check the background reorganizer runs on every tick.
+     * Time: O(1) when no rebuild is needed
+     * @param maxChainLength
+     * @return chain statistics of the layout that was replaced, null if no rebuild was needed
+     */
+    public ChainStats reorganizeIfNeeded(int maxChainLength) {
+        int longest;
+        this.writeLock.lock();
+        try {
+            longest = this.maxChainLength;
+        } finally {
+            this.writeLock.unlock();
         }
-        // 1. route to correct data page
-        DataPage page = this.descendIndex(this.rootIndex, key);
+        return longest > maxChainLength ? this.rebuild() : null;
+    }
 
-        // 2. insert into primary or overflow pages
-        page.insert(key, key);
+    /**
+     * Last exception a background rebuild threw since startReorganizer(), null if none did. the reorganizer keeps
+     * running, so the next tick retries.
+     */
+    public RuntimeException reorganizerFailure() {
+        return this.reorganizerFailure;
     }
 
+    /**
+     * Stop the background reorganizer, waiting for a rebuild in progress to finish.
+     * @throws InterruptedException
+     */
+    public synchronized void stopReorganizer() throws InterruptedException {
+        if (this.reorganizer == null) return;
+        this.reorganizer.shutdown();
+        this.reorganizer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        this.reorganizer = null;
+    }
 }
 
 public class ISAMDemo {
@@ -498,18 +802,68 @@ public class ISAMDemo {
         System.out.println("60 == " + isam.getKey(60));
 
         System.out.println(isam.rangeScan(31, 65));
+
+        System.out.println("\n=== Inserts go to overflow chains ===");
+        for (int key = 42; key < 50; key++) {
+            isam.insert(key);
+        }
+        isam.insert(1);
+        System.out.println(isam.chainStats());
+        System.out.println("45 == " + isam.getKey(45));
+        System.out.println(isam.rangeScan(40, 50));
+
+        System.out.println("\n=== Rebuild ===");
+        System.out.println("replaced: " + isam.rebuild());
+        System.out.println("now:      " + isam.chainStats());
+        printDataPages(isam);
+        System.out.println("45 == " + isam.getKey(45));
+        System.out.println(isam.rangeScan(40, 50));
+
+        System.out.println("\n=== Reorganize once chains grow too long ===");
+        for (int key = 100; key < 140; key++) {
+            isam.insert(key);
+        }
+        System.out.println("before:   " + isam.chainStats());
+        // the check the background reorganizer runs on every tick
+        System.out.println("replaced: " + isam.reorganizeIfNeeded(1));
+        System.out.println("now:      " + isam.chainStats());
+        System.out.println("again:    " + isam.reorganizeIfNeeded(1));
+        System.out.println("120 == " + isam.getKey(120));
+
+        System.out.println("\n=== Background reorganizer ===");
+        try {
+            isam.startReorganizer(10, 1);
+            for (int key = 200; key < 240; key++) {
+                isam.insert(key);
+            }
+            isam.stopReorganizer();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // how many ticks ran before the stop depends on scheduling, catch up on whatever is left
+        isam.reorganizeIfNeeded(1);
+        System.out.println("longest chain <= 1: " + (isam.chainStats().maxChainLength <= 1) + ", failure: "
+                + isam.reorganizerFailure());
+        System.out.println("220 == " + isam.getKey(220));
     }
 
     // -----------------------------
     // PRINT HELPERS
     // -----------------------------
 
+    private static Object layoutField(ISAM isam, String name) throws ReflectiveOperationException {
+        var layoutField = ISAM.class.getDeclaredField("layout");
+        layoutField.setAccessible(true);
+        Object layout = layoutField.get(isam);
+        var field = layout.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(layout);
+    }
+
     private static void printDataPages(ISAM isam) {
         try {
-            // reflectively access private field dataPages
-            var field = ISAM.class.getDeclaredField("dataPages");
-            field.setAccessible(true);
-            List<?> pages = (List<?>) field.get(isam);
+            // reflectively access private field dataPages of the current layout
+            List<?> pages = (List<?>) layoutField(isam, "dataPages");
 
             int pageId = 0;
             for (Object p : pages) {
@@ -533,9 +887,7 @@ public class ISAMDemo {
 
     private static void printIndex(ISAM isam) {
         try {
-            var field = ISAM.class.getDeclaredField("rootIndex");
-            field.setAccessible(true);
-            Object rootIndex = field.get(isam);
+            Object rootIndex = layoutField(isam, "rootIndex");
 
             printIndexRecursive(rootIndex, 0);
 
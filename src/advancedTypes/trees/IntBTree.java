@@ -0,0 +1,206 @@
+package advancedTypes.trees;
+
+import java.util.Arrays;
+
+/**
+ * IntBTree is a B-Tree of primitive int keys laid out for the CPU cache, an alternative to BTree for large key sets.
+ *
+ * BTree keeps each node's keys in an ArrayList of boxed Integers and its children in another ArrayList, so every level
+ * of a search follows node -> list -> array -> Integer before it can compare a single key. here there are no node
+ * objects at all: a node is an index into one flat int[] shared by the whole tree.
+ *
+ * Internal structure, for minimum degree t:
+ * - node n owns the block nodes[n * 4t, n * 4t + 4t). with the default t = 16 that is 256 contiguous bytes, four
+ *   cache lines, so the adjacent-line prefetcher brings in most of a node with its first miss
+ * - block [0, 2t): the sorted keys, up to 2t - 1 of them. unused slots hold Integer.MAX_VALUE
+ * - block [2t, 4t): child node indices, for internal nodes
+ * - counts[n] holds the key count. searches do not need it (the padding ends the keys), only inserts do
+ * - there is no leaf flag: all leaves are at the same depth, so a node is a leaf when the descent reaches height 1
+ *
+ * In-node search is branch-free: it counts the keys < key over the whole fixed 2t-wide key block, adding each
+ * comparison result instead of branching on it. the loads are independent of each other, so the CPU fetches the key
+ * cache lines in parallel and the loop is a candidate for SIMD; a branch-free binary search was slower here because
+ * each of its loads depends on the previous comparison. the padding makes the fixed width safe without looking at the
+ * count.
+ *
+ * search and insert allocate nothing; the arrays only grow (by doubling) when a split needs a new node.
+ */
+public class IntBTree {
+    private static final int DEFAULT_MIN_DEGREE = 16;
+    private static final int INITIAL_NODES = 16;
+    private static final int PAD = Integer.MAX_VALUE;
+
+    private final int minDegree;
+    private final int maxKeys;
+    // ints per node block
+    private final int block;
+    // offset of the children within a block
+    private final int childOffset;
+    private int[] nodes;
+    private int[] counts;
+    private int nodeCount = 0;
+    private int root;
+    private int height = 1;
+    private int size = 0;
+
+    public IntBTree() {
+        this(DEFAULT_MIN_DEGREE);
+    }
+
+    /**
+     * @param minDegree t >= 2. a node holds up to 2t - 1 keys
+     */
+    public IntBTree(int minDegree) {
+        if (minDegree < 2) throw new IllegalArgumentException("minDegree: " + minDegree + " must be at least 2");
+        this.minDegree = minDegree;
+        this.maxKeys = 2 * minDegree - 1;
+        this.block = 4 * minDegree;
+        this.childOffset = 2 * minDegree;
+        this.nodes = new int[INITIAL_NODES * this.block];
+        this.counts = new int[INITIAL_NODES];
+        this.root = this.newNode();
+    }
+
+    /**
+     * Search
+     * - branch-free count of the smaller keys inside the node's key block
+     * - descend into the child, iteratively
+     * Time: O(log n)
+     * Space: O(1), allocates nothing
+     * @param key
+     * @return true if key is in the tree
+     */
+    public boolean search(int key) {
+        int[] nodes = this.nodes;
+        int node = this.root;
+        for (int level = this.height; ; level--) {
+            int base = node * this.block;
+            int i = lowerBound(nodes, base, key, this.minDegree);
+            // a padding slot also equals MAX_VALUE, only then the count is needed
+            if (nodes[base + i] == key && (key != PAD || i < this.counts[node])) return true;
+            if (level == 1) return false;
+            node = nodes[base + this.childOffset + i];
+        }
+    }
+
+    /**
+     * Number of keys in the block starting at base that are < key, i.e. the first index whose key is >= key.
+     */
+    private static int lowerBound(int[] nodes, int base, int key, int minDegree) {
+        int count = 0;
+        for (int j = base, end = base + 2 * minDegree; j < end; j++) {
+            count += nodes[j] < key ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * First index in the node whose key is > key: equal keys go right, like BTree.
+     */
+    private int upperBound(int node, int key) {
+        int base = node * this.block;
+        int count = this.counts[node];
+        int i = lowerBound(this.nodes, base, key, this.minDegree);
+        while (i < count && this.nodes[base + i] == key) {
+            i += 1;
+        }
+        return i;
+    }
+
+    /**
+     * Insert key, single pass top down: a full root is split first, and every full child is split before descending
+     * into it, so the node we insert into always has room. duplicates are kept, as in BTree.
+     * Time: O(log n)
+     * Space: O(1) amortized, allocates only when a split outgrows the node arrays
+     * @param key
+     */
+    public void insert(int key) {
+        if (this.counts[this.root] == this.maxKeys) {
+            int oldRoot = this.root;
+            int newRoot = this.newNode();
+            this.nodes[newRoot * this.block + this.childOffset] = oldRoot;
+            this.root = newRoot;
+            this.height += 1;
+            this.splitChild(newRoot, 0, this.height - 1);
+        }
+        this.insertNonFull(this.root, key);
+        this.size += 1;
+    }
+
+    private void insertNonFull(int node, int key) {
+        for (int level = this.height; level > 1; level--) {
+            int i = this.upperBound(node, key);
+            int child = this.nodes[node * this.block + this.childOffset + i];
+            if (this.counts[child] == this.maxKeys) {
+                this.splitChild(node, i, level - 1);
+                if (key >= this.nodes[node * this.block + i]) i += 1;
+                child = this.nodes[node * this.block + this.childOffset + i];
+            }
+            node = child;
+        }
+        int base = node * this.block;
+        int count = this.counts[node];
+        int i = this.upperBound(node, key);
+        System.arraycopy(this.nodes, base + i, this.nodes, base + i + 1, count - i);
+        this.nodes[base + i] = key;
+        this.counts[node] = count + 1;
+    }
+
+    /**
+     * Split the full child at index of parent: keys [0, t - 1) stay, key t - 1 moves up into parent, keys [t, 2t - 1)
+     * and their children move to a new right node.
+     * @param childLevel height of the child above the leaves, 1 for a leaf
+     */
+    private void splitChild(int parent, int index, int childLevel) {
+        int t = this.minDegree;
+        // newNode may grow the arrays, read them only after it
+        int right = this.newNode();
+        int[] nodes = this.nodes;
+        int parentBase = parent * this.block;
+        int child = nodes[parentBase + this.childOffset + index];
+        int childBase = child * this.block;
+        int rightBase = right * this.block;
+        int median = nodes[childBase + t - 1];
+
+        System.arraycopy(nodes, childBase + t, nodes, rightBase, t - 1);
+        Arrays.fill(nodes, childBase + t - 1, childBase + this.maxKeys, PAD);
+        if (childLevel > 1) {
+            System.arraycopy(nodes, childBase + this.childOffset + t, nodes, rightBase + this.childOffset, t);
+        }
+        this.counts[child] = t - 1;
+        this.counts[right] = t - 1;
+
+        int parentCount = this.counts[parent];
+        System.arraycopy(nodes, parentBase + index, nodes, parentBase + index + 1, parentCount - index);
+        nodes[parentBase + index] = median;
+        int parentChildren = parentBase + this.childOffset;
+        System.arraycopy(nodes, parentChildren + index + 1, nodes, parentChildren + index + 2, parentCount - index);
+        nodes[parentChildren + index + 1] = right;
+        this.counts[parent] = parentCount + 1;
+    }
+
+    private int newNode() {
+        if (this.nodeCount == this.counts.length) {
+            int capacity = this.counts.length * 2;
+            this.nodes = Arrays.copyOf(this.nodes, capacity * this.block);
+            this.counts = Arrays.copyOf(this.counts, capacity);
+        }
+        int node = this.nodeCount;
+        this.nodeCount += 1;
+        Arrays.fill(this.nodes, node * this.block, node * this.block + this.childOffset, PAD);
+        this.counts[node] = 0;
+        return node;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int nodeCount() {
+        return this.nodeCount;
+    }
+
+    public int height() {
+        return this.height;
+    }
+}
@@ -0,0 +1,83 @@
+package advancedTypes.trees;
+
+import java.util.Random;
+
+/**
+ * Insert and search times of IntBTree against BTree (boxed ArrayList nodes) and BTree2 (int[] nodes, binary search),
+ * all with minimum degree 16, on KEYS random keys.
+ *
+ * Searches look up LOOKUPS random keys, about half of them present. every search result is counted so the JIT cannot
+ * drop the loop.
+ *
+ * This is a plain main() harness, not JMH. BTree needs about 1 GB of heap for 10M keys, run it with e.g.
+ * -Xms2g -Xmx2g and treat the numbers as relative.
+ */
+public class IntBTreeBenchmark {
+    private static final int KEYS = 10_000_000;
+    private static final int LOOKUPS = 10_000_000;
+    private static final int MIN_DEGREE = 16;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        int[] keys = new int[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = random.nextInt(2 * KEYS);
+        }
+        int[] lookups = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookups[i] = random.nextInt(2 * KEYS);
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            System.out.println("=== round " + round + (round == 0 ? " (warmup)" : "") + " ===");
+
+            long start = System.nanoTime();
+            IntBTree intTree = new IntBTree(MIN_DEGREE);
+            for (int key : keys) {
+                intTree.insert(key);
+            }
+            long insertNanos = System.nanoTime() - start;
+            int found = 0;
+            start = System.nanoTime();
+            for (int key : lookups) {
+                if (intTree.search(key)) found += 1;
+            }
+            report("IntBTree", insertNanos, System.nanoTime() - start, found);
+            intTree = null;
+
+            start = System.nanoTime();
+            BTree2 tree2 = new BTree2(MIN_DEGREE);
+            for (int key : keys) {
+                tree2.insert(key);
+            }
+            insertNanos = System.nanoTime() - start;
+            found = 0;
+            start = System.nanoTime();
+            for (int key : lookups) {
+                if (tree2.search(key)) found += 1;
+            }
+            report("BTree2", insertNanos, System.nanoTime() - start, found);
+            tree2 = null;
+
+            start = System.nanoTime();
+            BTree tree = new BTree(MIN_DEGREE);
+            for (int key : keys) {
+                tree.insert(key);
+            }
+            insertNanos = System.nanoTime() - start;
+            found = 0;
+            start = System.nanoTime();
+            for (int key : lookups) {
+                if (tree.search(key) != null) found += 1;
+            }
+            report("BTree", insertNanos, System.nanoTime() - start, found);
+        }
+    }
+
+    private static void report(String label, long insertNanos, long searchNanos, int found) {
+        System.out.printf("%-10s insert %6d ms (%6.1f ns/op)   search %6d ms (%6.1f ns/op)   found %d%n", label,
+                insertNanos / 1_000_000, (double) insertNanos / KEYS, searchNanos / 1_000_000,
+                (double) searchNanos / LOOKUPS, found);
+    }
+}
@@ -0,0 +1,281 @@
+package advancedTypes.trees;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MappedSuffixArray answers SuffixArray queries straight from an index file mapped into memory with FileChannel.map.
+ *
+ * Opening an index only maps the file, nothing is read or copied onto the heap: startup is near-instant whatever the
+ * corpus size, the OS pages in only the parts the binary searches touch, and processes mapping the same file share
+ * those pages through the page cache.
+ *
+ * File layout (little endian, every section 4-byte aligned):
+ * - header, HEADER_SIZE bytes: magic, format version, flags, n
+ * - text: n bytes (Latin-1) or 2n bytes (UTF-16, flag WIDE_TEXT), padded to a multiple of 4
+ * - sa: n ints
+ * - lcp: n ints
+ *
+ * A single MappedByteBuffer is limited to 2 GB, so the file is mapped in SEGMENT_SIZE pieces. since sections are
+ * aligned and SEGMENT_SIZE is a power of two, no int or char ever straddles two segments.
+ */
+public class MappedSuffixArray {
+    private static final int MAGIC = 0x58494153; // "SAIX"
+    private static final int FORMAT_VERSION = 1;
+    private static final int WIDE_TEXT = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = (int) (SEGMENT_SIZE - 1);
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private final MappedByteBuffer[] segments;
+    private final int n;
+    private final boolean wide;
+    private final long saOffset;
+    private final long lcpOffset;
+
+    private MappedSuffixArray(MappedByteBuffer[] segments, int n, boolean wide) {
+        this.segments = segments;
+        this.n = n;
+        this.wide = wide;
+        this.saOffset = HEADER_SIZE + align4(wide ? 2L * n : n);
+        this.lcpOffset = this.saOffset + 4L * n;
+    }
+
+    /**
+     * Write index to path in the mapped file format, replacing the file if it exists.
+     * Time: O(n)
+     * Space: O(1) besides a fixed write buffer
+     * @param index
+     * @param path
+     * @throws IOException
+     */
+    public static void write(SuffixArray index, Path path) throws IOException {
+        String text = index.getText();
+        int n = text.length();
+        boolean wide = false;
+        for (int i = 0; i < n && !wide; i++) {
+            wide = text.charAt(i) > 0xFF;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(wide ? WIDE_TEXT : 0).putLong(n);
+            while (buffer.position() < HEADER_SIZE) {
+                buffer.put((byte) 0);
+            }
+            for (int i = 0; i < n; i++) {
+                if (buffer.remaining() < 2) flush(channel, buffer);
+                if (wide) {
+                    buffer.putChar(text.charAt(i));
+                } else {
+                    buffer.put((byte) text.charAt(i));
+                }
+            }
+            // the text loop can leave the buffer 1 or 2 bytes short of full, so the padding may need a flush too
+            long textBytes = wide ? 2L * n : n;
+            for (long i = textBytes; i < align4(textBytes); i++) {
+                if (!buffer.hasRemaining()) flush(channel, buffer);
+                buffer.put((byte) 0);
+            }
+            writeInts(channel, buffer, index.getSuffixArray());
+            writeInts(channel, buffer, index.getLcp());
+            flush(channel, buffer);
+            channel.force(true);
+        }
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException {
+        for (int value : values) {
+            if (buffer.remaining() < 4) flush(channel, buffer);
+            buffer.putInt(value);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Map an index file written by write. the channel is closed again right away, the mapping stays valid until the
+     * MappedSuffixArray is garbage collected.
+     * Time: O(file size / SEGMENT_SIZE), no data is read besides the header
+     * @param path
+     * @return
+     * @throws IOException if the file is not an index file or is truncated
+     */
+    public static MappedSuffixArray open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) throw new IOException(path + " is not a suffix array index");
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(SEGMENT_SIZE, size - position));
+                segments[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            ByteBuffer header = segments[0];
+            if (header.getInt(0) != MAGIC) throw new IOException(path + " is not a suffix array index");
+            if (header.getInt(4) != FORMAT_VERSION) {
+                throw new IOException(path + " has unsupported format version " + header.getInt(4));
+            }
+            boolean wide = (header.getInt(8) & WIDE_TEXT) != 0;
+            long n = header.getLong(12);
+            long expected = HEADER_SIZE + align4(wide ? 2 * n : n) + 8 * n;
+            if (n < 0 || n > Integer.MAX_VALUE || size != expected) {
+                throw new IOException(path + " is truncated or corrupt: " + size + " bytes, expected " + expected);
+            }
+            return new MappedSuffixArray(segments, (int) n, wide);
+        }
+    }
+
+    /**
+     * Checks if pattern occurs in the text.
+     * Time: O(m log n)
+     * - where m is the length of the pattern
+     * @param pattern
+     * @return
+     */
+    public boolean contains(String pattern) {
+        return this.countOccurrences(pattern) > 0;
+    }
+
+    /**
+     * Finds all starting indices of pattern in the text, in ascending order.
+     * Time: O(m log n + occ log occ)
+     * Space: O(occ)
+     * @param pattern
+     * @return
+     */
+    public List<Integer> findAll(String pattern) {
+        int from = this.lowerBound(pattern);
+        int to = this.upperBound(pattern, from);
+        int[] positions = new int[to - from];
+        for (int i = from; i < to; i++) {
+            positions[i - from] = this.suffixAt(i);
+        }
+        Arrays.sort(positions);
+        List<Integer> results = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            results.add(position);
+        }
+        return results;
+    }
+
+    /**
+     * Counts how many times pattern occurs in the text.
+     * Time: O(m log n)
+     * Space: O(1)
+     * @param pattern
+     * @return
+     */
+    public int countOccurrences(String pattern) {
+        int from = this.lowerBound(pattern);
+        return this.upperBound(pattern, from) - from;
+    }
+
+    /**
+     * Same search as SuffixArray.lowerBound, reading the text and sa from the mapping.
+     */
+    private int lowerBound(String pattern) {
+        int lo = 0;
+        int hi = this.n;
+        int lcpLo = 0;
+        int lcpHi = 0;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int start = this.suffixAt(mid);
+            int matched = this.matchLength(start, pattern, Math.min(lcpLo, lcpHi));
+            boolean below = matched < pattern.length()
+                    && (start + matched == this.n || this.charAt(start + matched) < pattern.charAt(matched));
+            if (below) {
+                lo = mid + 1;
+                lcpLo = matched;
+            } else {
+                hi = mid;
+                lcpHi = matched;
+            }
+        }
+        return lo;
+    }
+
+    private int upperBound(String pattern, int from) {
+        int lo = from;
+        int hi = this.n;
+        int lcpLo = 0;
+        int lcpHi = 0;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int matched = this.matchLength(this.suffixAt(mid), pattern, Math.min(lcpLo, lcpHi));
+            if (matched == pattern.length()) {
+                lo = mid + 1;
+                lcpLo = matched;
+            } else {
+                hi = mid;
+                lcpHi = matched;
+            }
+        }
+        return lo;
+    }
+
+    private int matchLength(int start, String pattern, int skip) {
+        int k = skip;
+        int limit = Math.min(pattern.length(), this.n - start);
+        while (k < limit && this.charAt(start + k) == pattern.charAt(k)) {
+            k += 1;
+        }
+        return k;
+    }
+
+    /**
+     * Character i of the indexed text.
+     */
+    public char charAt(int i) {
+        if (this.wide) {
+            long offset = HEADER_SIZE + 2L * i;
+            return this.segments[(int) (offset >>> SEGMENT_SHIFT)].getChar((int) offset & SEGMENT_MASK);
+        }
+        long offset = HEADER_SIZE + (long) i;
+        return (char) (this.segments[(int) (offset >>> SEGMENT_SHIFT)].get((int) offset & SEGMENT_MASK) & 0xFF);
+    }
+
+    /**
+     * Start of the i-th smallest suffix, sa[i].
+     */
+    public int suffixAt(int i) {
+        return this.intAt(this.saOffset + 4L * i);
+    }
+
+    /**
+     * Longest common prefix of the suffixes at sa[i - 1] and sa[i], lcp[i].
+     */
+    public int lcpAt(int i) {
+        return this.intAt(this.lcpOffset + 4L * i);
+    }
+
+    private int intAt(long offset) {
+        return this.segments[(int) (offset >>> SEGMENT_SHIFT)].getInt((int) offset & SEGMENT_MASK);
+    }
+
+    public int length() {
+        return this.n;
+    }
+
+    private static long align4(long bytes) {
+        return (bytes + 3) & ~3L;
+    }
+}
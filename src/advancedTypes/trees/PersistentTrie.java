@@ -0,0 +1,237 @@
+package advancedTypes.trees;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * PersistentTrie is an immutable trie. insert and delete never change an existing trie, they return a new version.
+ *
+ * Path copying: only the nodes on the path from the root to the changed word are copied, every other subtree is
+ * shared with the previous version. an update costs O(L * a) new memory instead of a full copy, and any number of
+ * versions can be read concurrently without locks because nothing reachable from a root is ever written again.
+ *
+ * Internal structure:
+ * - each node keeps its children as a sorted char[] of labels and a parallel Node[], found by binary search. arrays
+ *   are cheaper to copy than a HashMap and a node has at most alphabet-size children
+ * - every version carries its word count, a version number and the number of nodes copied to build it
+ *
+ * See SnapshotTrie for publishing versions to concurrent readers.
+ */
+public final class PersistentTrie {
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final PersistentTrie EMPTY = new PersistentTrie(new Node(false, NO_LABELS, NO_CHILDREN), 0, 0, 0);
+
+    private static final class Node {
+        final boolean endOfWord;
+        final char[] labels;
+        final Node[] children;
+
+        Node(boolean endOfWord, char[] labels, Node[] children) {
+            this.endOfWord = endOfWord;
+            this.labels = labels;
+            this.children = children;
+        }
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(this.labels, c);
+            return index < 0 ? null : this.children[index];
+        }
+    }
+
+    private final Node root;
+    private final int size;
+    private final long version;
+    private final long copiedNodes;
+
+    private PersistentTrie(Node root, int size, long version, long copiedNodes) {
+        this.root = root;
+        this.size = size;
+        this.version = version;
+        this.copiedNodes = copiedNodes;
+    }
+
+    /**
+     * The empty trie, version 0.
+     */
+    public static PersistentTrie empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Return a trie that also contains word. returns this trie itself if the word is already there.
+     * Time: O(L * a)
+     * Space: O(L * a)
+     * - where L is the length of the word and a the alphabet size (each copied node copies its child arrays)
+     * @param word
+     * @return
+     */
+    public PersistentTrie insert(String word) {
+        String sanitizedWord = sanitize(word);
+        if (sanitizedWord.isEmpty() || this.search(sanitizedWord)) return this;
+        Node newRoot = insertRecursive(this.root, sanitizedWord, 0);
+        // one node per level of the path, including the root
+        return new PersistentTrie(newRoot, this.size + 1, this.version + 1,
+                this.copiedNodes + sanitizedWord.length() + 1);
+    }
+
+    private static Node insertRecursive(Node node, String word, int index) {
+        if (node == null) node = new Node(false, NO_LABELS, NO_CHILDREN);
+        if (index == word.length()) return new Node(true, node.labels, node.children);
+        char c = word.charAt(index);
+        int position = Arrays.binarySearch(node.labels, c);
+        if (position >= 0) {
+            Node[] children = node.children.clone();
+            children[position] = insertRecursive(children[position], word, index + 1);
+            return new Node(node.endOfWord, node.labels, children);
+        }
+        // new edge: copy both arrays with a gap at the insertion point
+        int insertAt = -position - 1;
+        int count = node.labels.length;
+        char[] labels = new char[count + 1];
+        Node[] children = new Node[count + 1];
+        System.arraycopy(node.labels, 0, labels, 0, insertAt);
+        System.arraycopy(node.children, 0, children, 0, insertAt);
+        System.arraycopy(node.labels, insertAt, labels, insertAt + 1, count - insertAt);
+        System.arraycopy(node.children, insertAt, children, insertAt + 1, count - insertAt);
+        labels[insertAt] = c;
+        children[insertAt] = insertRecursive(null, word, index + 1);
+        return new Node(node.endOfWord, labels, children);
+    }
+
+    /**
+     * Return a trie without word, pruning nodes that no longer lead to a word. returns this trie itself if the word is
+     * not there.
+     * Time: O(L * a)
+     * Space: O(L * a)
+     * @param word
+     * @return
+     */
+    public PersistentTrie delete(String word) {
+        String sanitizedWord = sanitize(word);
+        if (!this.search(sanitizedWord)) return this;
+        Node newRoot = deleteRecursive(this.root, sanitizedWord, 0);
+        if (newRoot == null) newRoot = EMPTY.root;
+        return new PersistentTrie(newRoot, this.size - 1, this.version + 1,
+                this.copiedNodes + sanitizedWord.length() + 1);
+    }
+
+    /**
+     * @return the copied node, or null if it is left without a word and without children
+     */
+    private static Node deleteRecursive(Node node, String word, int index) {
+        if (index == word.length()) {
+            return node.labels.length == 0 ? null : new Node(false, node.labels, node.children);
+        }
+        int position = Arrays.binarySearch(node.labels, word.charAt(index));
+        Node child = deleteRecursive(node.children[position], word, index + 1);
+        if (child != null) {
+            Node[] children = node.children.clone();
+            children[position] = child;
+            return new Node(node.endOfWord, node.labels, children);
+        }
+        // drop the edge
+        int count = node.labels.length;
+        if (count == 1 && !node.endOfWord) return null;
+        char[] labels = new char[count - 1];
+        Node[] children = new Node[count - 1];
+        System.arraycopy(node.labels, 0, labels, 0, position);
+        System.arraycopy(node.children, 0, children, 0, position);
+        System.arraycopy(node.labels, position + 1, labels, position, count - position - 1);
+        System.arraycopy(node.children, position + 1, children, position, count - position - 1);
+        return new Node(node.endOfWord, labels, children);
+    }
+
+    /**
+     * Find out if the trie has the word.
+     * Time: O(L log a)
+     * @param word
+     * @return
+     */
+    public boolean search(String word) {
+        Node node = this.getNode(sanitize(word));
+        return node != null && node.endOfWord;
+    }
+
+    /**
+     * Find out if the trie has a word starting with prefix.
+     * Time: O(L log a)
+     * @param prefix
+     * @return
+     */
+    public boolean startsWith(String prefix) {
+        return this.getNode(sanitize(prefix)) != null;
+    }
+
+    /**
+     * Get all the words starting with 'prefix', in alphabetical order.
+     * Time: O(K)
+     * - where K is the total number of characters in all matching words
+     * Space: O(K)
+     * @param prefix
+     * @return
+     */
+    public List<String> getAllWordsStartingWith(String prefix) {
+        String sanitizedPrefix = sanitize(prefix);
+        List<String> results = new ArrayList<>();
+        Node node = this.getNode(sanitizedPrefix);
+        if (node == null) return results;
+        dfsCollect(node, new StringBuilder(sanitizedPrefix), results);
+        return results;
+    }
+
+    private static void dfsCollect(Node node, StringBuilder path, List<String> results) {
+        if (node.endOfWord) results.add(path.toString());
+        for (int i = 0; i < node.labels.length; i++) {
+            path.append(node.labels[i]);
+            dfsCollect(node.children[i], path, results);
+            path.setLength(path.length() - 1);
+        }
+    }
+
+    /**
+     * Follow str from the root. like Trie, the empty string is not a path.
+     * @return the node where str ends, or null
+     */
+    private Node getNode(String str) {
+        if (str.isEmpty()) return null;
+        Node curr = this.root;
+        for (int i = 0; i < str.length() && curr != null; i++) {
+            curr = curr.child(str.charAt(i));
+        }
+        return curr;
+    }
+
+    /**
+     * Number of words in this version.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Number of updates that led to this version, 0 for the empty trie.
+     */
+    public long version() {
+        return this.version;
+    }
+
+    /**
+     * Total nodes copied by the updates from the empty trie to this version, word length + 1 per update (a delete that
+     * prunes copies fewer, this counts the path). everything else is shared between versions.
+     */
+    public long copiedNodes() {
+        return this.copiedNodes;
+    }
+
+    private static String sanitize(String str) {
+        return str.toLowerCase(Locale.ROOT).trim();
+    }
+
+    @Override
+    public String toString() {
+        return "PersistentTrie{" + "version=" + this.version + ", size=" + this.size + '}';
+    }
+}
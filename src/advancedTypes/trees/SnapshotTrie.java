@@ -0,0 +1,169 @@
+package advancedTypes.trees;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * SnapshotTrie publishes PersistentTrie versions to concurrent readers without any locks.
+ *
+ * - readers call snapshot() (one volatile read) and query an immutable version; everything they see is consistent
+ *   even while writers publish newer versions
+ * - writers build the next version off the current one and publish it with a compare-and-set on the root reference.
+ *   if another writer got there first the update is retried on the newer version, so concurrent writers never lose
+ *   updates and never block readers
+ * - a full rebuild (e.g. from a feed) is built privately and published with one replace(), readers switch over
+ *   atomically
+ *
+ * Metrics: current version, number of published versions, CAS retries, nodes copied by updates and the age of the
+ * current snapshot.
+ */
+public class SnapshotTrie {
+    private final AtomicReference<PersistentTrie> current;
+    private final LongAdder publishes = new LongAdder();
+    private final LongAdder casRetries = new LongAdder();
+    private final LongAdder copiedNodes = new LongAdder();
+    private volatile long lastPublishNanos;
+
+    public SnapshotTrie() {
+        this(PersistentTrie.empty());
+    }
+
+    public SnapshotTrie(PersistentTrie initial) {
+        this.current = new AtomicReference<>(initial);
+        this.lastPublishNanos = System.nanoTime();
+    }
+
+    /**
+     * The current immutable version. a reader that needs several consistent queries should take one snapshot and
+     * query it, instead of calling the methods below one by one.
+     */
+    public PersistentTrie snapshot() {
+        return this.current.get();
+    }
+
+    public boolean search(String word) {
+        return this.current.get().search(word);
+    }
+
+    public boolean startsWith(String prefix) {
+        return this.current.get().startsWith(prefix);
+    }
+
+    public List<String> getAllWordsStartingWith(String prefix) {
+        return this.current.get().getAllWordsStartingWith(prefix);
+    }
+
+    /**
+     * Insert a word and publish the new version.
+     * Time: O(L * a) per attempt
+     * @param word
+     * @return the published version
+     */
+    public PersistentTrie insert(String word) {
+        return this.update(trie -> trie.insert(word));
+    }
+
+    /**
+     * Delete a word and publish the new version.
+     * Time: O(L * a) per attempt
+     * @param word
+     * @return the published version
+     */
+    public PersistentTrie delete(String word) {
+        return this.update(trie -> trie.delete(word));
+    }
+
+    /**
+     * Insert all words and publish them as one version, so readers see either none or all of them.
+     * @param words
+     * @return the published version
+     */
+    public PersistentTrie insertAll(Collection<String> words) {
+        return this.update(trie -> {
+            for (String word : words) {
+                trie = trie.insert(word);
+            }
+            return trie;
+        });
+    }
+
+    /**
+     * Apply updater to the current version and publish the result with a CAS, retrying on a newer version if another
+     * writer published first. updater must be free of side effects, it may run more than once.
+     * @param updater
+     * @return the published version
+     */
+    public PersistentTrie update(UnaryOperator<PersistentTrie> updater) {
+        while (true) {
+            PersistentTrie expected = this.current.get();
+            PersistentTrie next = updater.apply(expected);
+            if (next == expected) return expected; // nothing changed, nothing to publish
+            if (this.current.compareAndSet(expected, next)) {
+                this.copiedNodes.add(next.copiedNodes() - expected.copiedNodes());
+                this.published();
+                return next;
+            }
+            this.casRetries.increment();
+        }
+    }
+
+    /**
+     * Publish a trie built elsewhere, e.g. a full rebuild, replacing the current version unconditionally.
+     * @param next
+     * @return the version that was replaced
+     */
+    public PersistentTrie replace(PersistentTrie next) {
+        PersistentTrie previous = this.current.getAndSet(next);
+        if (previous != next) this.published();
+        return previous;
+    }
+
+    private void published() {
+        this.publishes.increment();
+        this.lastPublishNanos = System.nanoTime();
+    }
+
+    /**
+     * Version number of the current snapshot.
+     */
+    public long currentVersion() {
+        return this.current.get().version();
+    }
+
+    /**
+     * Number of versions published through this SnapshotTrie.
+     */
+    public long publishedVersions() {
+        return this.publishes.sum();
+    }
+
+    /**
+     * Number of times a writer lost a CAS race and had to redo its update.
+     */
+    public long casRetries() {
+        return this.casRetries.sum();
+    }
+
+    /**
+     * Total nodes copied by updates published through update(), not counting replace().
+     */
+    public long copiedNodes() {
+        return this.copiedNodes.sum();
+    }
+
+    /**
+     * Nanoseconds since the current snapshot was published.
+     */
+    public long snapshotAgeNanos() {
+        return System.nanoTime() - this.lastPublishNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotTrie{" + "version=" + this.currentVersion() + ", published=" + this.publishedVersions() +
+                ", casRetries=" + this.casRetries() + ", copiedNodes=" + this.copiedNodes() + '}';
+    }
+}
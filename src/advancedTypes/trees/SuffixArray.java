@@ -0,0 +1,356 @@
+package advancedTypes.trees;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SuffixArray indexes every suffix of a text for substring search, as a compact alternative to SuffixTrie.
+ *
+ * - sa[i] is the start of the i-th smallest suffix of the text
+ * - lcp[i] is the length of the longest common prefix of the suffixes at sa[i - 1] and sa[i], lcp[0] = 0
+ *
+ * All the suffixes starting with a pattern are next to each other in sa, so a pattern is found with two binary
+ * searches. the index holds the text plus two int[] of length n, about 9n bytes for a Latin-1 text (Java stores it
+ * one byte per char), compared to O(n^2) nodes for SuffixTrie.
+ *
+ * Construction:
+ * - sa is built with SA-IS (induced sorting) in O(n)
+ * - lcp is built with Kasai's algorithm in O(n)
+ */
+public class SuffixArray {
+    private final String text;
+    private final int[] sa;
+    private final int[] lcp;
+
+    /**
+     * Build the index.
+     * Time: O(n + k)
+     * Space: O(n + k)
+     * - where n is the length of the text and k the largest char value in it
+     * @param text
+     */
+    public SuffixArray(String text) {
+        this.text = text;
+        int n = text.length();
+        int[] s = new int[n];
+        int upper = 0;
+        for (int i = 0; i < n; i++) {
+            s[i] = text.charAt(i);
+            upper = Math.max(upper, s[i]);
+        }
+        this.sa = saIs(s, upper);
+        this.lcp = kasai(text, this.sa);
+    }
+
+    /**
+     * Wrap an index that was already built, e.g. loaded from disk. the arrays are used as is.
+     */
+    SuffixArray(String text, int[] sa, int[] lcp) {
+        this.text = text;
+        this.sa = sa;
+        this.lcp = lcp;
+    }
+
+    /**
+     * SA-IS: classify every position as S-type (suffix smaller than the next one) or L-type, sort the LMS substrings
+     * (S-type positions preceded by an L-type) by induced sorting, name them, recursively sort the reduced string of
+     * names if the names are not unique yet, and induce the final order from the sorted LMS suffixes.
+     * Time: O(n + upper)
+     * Space: O(n + upper)
+     * @param s values in [0, upper]
+     * @param upper
+     * @return
+     */
+    static int[] saIs(int[] s, int upper) {
+        int n = s.length;
+        if (n == 0) return new int[0];
+        if (n == 1) return new int[]{0};
+        if (n == 2) return s[0] < s[1] ? new int[]{0, 1} : new int[]{1, 0};
+
+        int[] sa = new int[n];
+        // ls[i]: suffix i is S-type. the last suffix is L-type, by convention of an implicit smallest sentinel after it
+        boolean[] ls = new boolean[n];
+        for (int i = n - 2; i >= 0; i--) {
+            ls[i] = s[i] == s[i + 1] ? ls[i + 1] : s[i] < s[i + 1];
+        }
+        // bucket starts: sumL[c] = first slot of the L-type part of bucket c, sumS[c] = first slot of its S-type part
+        int[] sumL = new int[upper + 1];
+        int[] sumS = new int[upper + 1];
+        for (int i = 0; i < n; i++) {
+            if (!ls[i]) {
+                sumS[s[i]] += 1;
+            } else {
+                sumL[s[i] + 1] += 1;
+            }
+        }
+        for (int i = 0; i <= upper; i++) {
+            sumS[i] += sumL[i];
+            if (i < upper) sumL[i + 1] += sumS[i];
+        }
+
+        int[] lmsMap = new int[n + 1];
+        Arrays.fill(lmsMap, -1);
+        int m = 0;
+        for (int i = 1; i < n; i++) {
+            if (!ls[i - 1] && ls[i]) {
+                lmsMap[i] = m;
+                m += 1;
+            }
+        }
+        int[] lms = new int[m];
+        for (int i = 1, p = 0; i < n; i++) {
+            if (!ls[i - 1] && ls[i]) {
+                lms[p] = i;
+                p += 1;
+            }
+        }
+
+        induce(s, sa, ls, sumL, sumS, lms);
+
+        if (m > 0) {
+            // LMS positions in the order induced sorting put them in
+            int[] sortedLms = new int[m];
+            int p = 0;
+            for (int v : sa) {
+                if (lmsMap[v] != -1) {
+                    sortedLms[p] = v;
+                    p += 1;
+                }
+            }
+            // name every LMS substring by its rank, equal substrings get equal names
+            int[] recS = new int[m];
+            int recUpper = 0;
+            recS[lmsMap[sortedLms[0]]] = 0;
+            for (int i = 1; i < m; i++) {
+                int l = sortedLms[i - 1];
+                int r = sortedLms[i];
+                int endL = lmsMap[l] + 1 < m ? lms[lmsMap[l] + 1] : n;
+                int endR = lmsMap[r] + 1 < m ? lms[lmsMap[r] + 1] : n;
+                boolean same = true;
+                if (endL - l != endR - r) {
+                    same = false;
+                } else {
+                    while (l < endL && s[l] == s[r]) {
+                        l += 1;
+                        r += 1;
+                    }
+                    if (l == n || s[l] != s[r]) same = false;
+                }
+                if (!same) recUpper += 1;
+                recS[lmsMap[sortedLms[i]]] = recUpper;
+            }
+            // sort the LMS suffixes by sorting the string of names
+            int[] recSa = saIs(recS, recUpper);
+            for (int i = 0; i < m; i++) {
+                sortedLms[i] = lms[recSa[i]];
+            }
+            induce(s, sa, ls, sumL, sumS, sortedLms);
+        }
+        return sa;
+    }
+
+    /**
+     * Place the LMS suffixes at the ends of their buckets, then induce the L-type suffixes left to right and the
+     * S-type suffixes right to left.
+     */
+    private static void induce(int[] s, int[] sa, boolean[] ls, int[] sumL, int[] sumS, int[] lms) {
+        int n = s.length;
+        Arrays.fill(sa, -1);
+        int[] buf = Arrays.copyOf(sumS, sumS.length);
+        for (int d : lms) {
+            if (d == n) continue;
+            sa[buf[s[d]]] = d;
+            buf[s[d]] += 1;
+        }
+        System.arraycopy(sumL, 0, buf, 0, sumL.length);
+        sa[buf[s[n - 1]]] = n - 1;
+        buf[s[n - 1]] += 1;
+        for (int i = 0; i < n; i++) {
+            int v = sa[i];
+            if (v >= 1 && !ls[v - 1]) {
+                sa[buf[s[v - 1]]] = v - 1;
+                buf[s[v - 1]] += 1;
+            }
+        }
+        System.arraycopy(sumL, 0, buf, 0, sumL.length);
+        for (int i = n - 1; i >= 0; i--) {
+            int v = sa[i];
+            // an S-type char is never the largest one, so s[v - 1] + 1 stays in range
+            if (v >= 1 && ls[v - 1]) {
+                buf[s[v - 1] + 1] -= 1;
+                sa[buf[s[v - 1] + 1]] = v - 1;
+            }
+        }
+    }
+
+    /**
+     * Kasai: walk the suffixes in text order. if suffix i shares h characters with the suffix before it in sa, suffix
+     * i + 1 shares at least h - 1 with its predecessor, so h only drops by one per step and the total work is O(n).
+     * Time: O(n)
+     * Space: O(n)
+     */
+    static int[] kasai(String text, int[] sa) {
+        int n = sa.length;
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            rank[sa[i]] = i;
+        }
+        int[] lcp = new int[n];
+        int h = 0;
+        for (int i = 0; i < n; i++) {
+            if (h > 0) h -= 1;
+            if (rank[i] == 0) {
+                h = 0;
+                continue;
+            }
+            int j = sa[rank[i] - 1];
+            while (i + h < n && j + h < n && text.charAt(i + h) == text.charAt(j + h)) {
+                h += 1;
+            }
+            lcp[rank[i]] = h;
+        }
+        return lcp;
+    }
+
+    /**
+     * Checks if pattern occurs in the text.
+     * Time: O(m log n)
+     * - where m is the length of the pattern
+     * @param pattern
+     * @return
+     */
+    public boolean contains(String pattern) {
+        return this.countOccurrences(pattern) > 0;
+    }
+
+    /**
+     * Finds all starting indices of pattern in the text, in ascending order.
+     * Time: O(m log n + occ log occ)
+     * Space: O(occ)
+     * @param pattern
+     * @return
+     */
+    public List<Integer> findAll(String pattern) {
+        int from = this.lowerBound(pattern);
+        int to = this.upperBound(pattern, from);
+        int[] positions = Arrays.copyOfRange(this.sa, from, to);
+        Arrays.sort(positions);
+        List<Integer> results = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            results.add(position);
+        }
+        return results;
+    }
+
+    /**
+     * Counts how many times pattern occurs in the text.
+     * Time: O(m log n)
+     * Space: O(1)
+     * @param pattern
+     * @return
+     */
+    public int countOccurrences(String pattern) {
+        int from = this.lowerBound(pattern);
+        return this.upperBound(pattern, from) - from;
+    }
+
+    /**
+     * First index in sa whose suffix is >= pattern.
+     * Binary search that remembers how many characters the pattern shares with the suffixes at both ends of the
+     * range: every suffix in between shares at least the smaller of the two, so comparisons start there.
+     */
+    private int lowerBound(String pattern) {
+        int lo = 0;
+        int hi = this.sa.length;
+        int lcpLo = 0;
+        int lcpHi = 0;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int skip = Math.min(lcpLo, lcpHi);
+            int matched = this.matchLength(this.sa[mid], pattern, skip);
+            if (this.suffixBelow(this.sa[mid], pattern, matched)) {
+                lo = mid + 1;
+                lcpLo = matched;
+            } else {
+                hi = mid;
+                lcpHi = matched;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * First index in sa, at or after from, whose suffix does not start with pattern.
+     */
+    private int upperBound(String pattern, int from) {
+        int lo = from;
+        int hi = this.sa.length;
+        int lcpLo = 0;
+        int lcpHi = 0;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int skip = Math.min(lcpLo, lcpHi);
+            int matched = this.matchLength(this.sa[mid], pattern, skip);
+            if (matched == pattern.length()) {
+                lo = mid + 1;
+                lcpLo = matched;
+            } else {
+                hi = mid;
+                lcpHi = matched;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Number of leading characters the suffix at start shares with pattern, knowing the first skip already match.
+     */
+    private int matchLength(int start, String pattern, int skip) {
+        int k = skip;
+        int limit = Math.min(pattern.length(), this.text.length() - start);
+        while (k < limit && this.text.charAt(start + k) == pattern.charAt(k)) {
+            k += 1;
+        }
+        return k;
+    }
+
+    /**
+     * Whether the suffix at start sorts before pattern, given that they share the first matched characters.
+     */
+    private boolean suffixBelow(int start, String pattern, int matched) {
+        if (matched == pattern.length()) return false;
+        // the suffix ran out first: a proper prefix of the pattern sorts before it
+        if (start + matched == this.text.length()) return true;
+        return this.text.charAt(start + matched) < pattern.charAt(matched);
+    }
+
+    /**
+     * The longest substring that occurs at least twice: the largest lcp value, read off the suffix it belongs to.
+     * Time: O(n)
+     */
+    public String longestRepeatedSubstring() {
+        if (this.lcp.length == 0) return "";
+        int best = 0;
+        for (int i = 1; i < this.lcp.length; i++) {
+            if (this.lcp[i] > this.lcp[best]) best = i;
+        }
+        return this.text.substring(this.sa[best], this.sa[best] + this.lcp[best]);
+    }
+
+    public int length() {
+        return this.text.length();
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
+    int[] getSuffixArray() {
+        return this.sa;
+    }
+
+    int[] getLcp() {
+        return this.lcp;
+    }
+}
@@ -0,0 +1,83 @@
+package advancedTypes.trees;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Build time, retained heap and query time of SuffixArray on a large log corpus.
+ *
+ * The corpus is the file passed as the first argument (read as ISO-8859-1, one char per byte), or else CORPUS_SIZE
+ * characters of generated log lines. retained heap is the used heap after a GC with the index alive, minus the used
+ * heap with only the text alive; for a Latin-1 text the target is about 8n bytes on top of the n-byte text.
+ * the index is then written to a temporary file and the same queries are run through MappedSuffixArray.
+ *
+ * This is a plain main() harness, not JMH. building a 100 MB index needs about 2 GB of scratch space, run it with
+ * e.g. -Xms3g -Xmx3g and treat the numbers as relative.
+ */
+public class SuffixArrayBenchmark {
+    private static final int CORPUS_SIZE = 100 * 1024 * 1024;
+    private static final String[] PATTERNS = {"ERROR", "status=503", "user=42 ", "latency=1", "zzz"};
+    private static final int QUERY_ROUNDS = 10_000;
+
+    public static void main(String[] args) throws IOException {
+        String corpus = args.length > 0
+                ? new String(Files.readAllBytes(Paths.get(args[0])), StandardCharsets.ISO_8859_1)
+                : SuffixTreeBenchmark.generateLog(CORPUS_SIZE);
+        long textOnly = usedHeap();
+
+        long start = System.nanoTime();
+        SuffixArray index = new SuffixArray(corpus);
+        long build = System.nanoTime() - start;
+        long retained = usedHeap() - textOnly;
+        System.out.printf("chars: %d, build: %d ms, retained: %d MB (%.2f bytes/char + text)%n", index.length(),
+                build / 1_000_000, retained >> 20, (double) retained / index.length());
+
+        for (String pattern : PATTERNS) {
+            long hits = 0;
+            start = System.nanoTime();
+            for (int round = 0; round < QUERY_ROUNDS; round++) {
+                hits += index.countOccurrences(pattern);
+            }
+            report("heap countOccurrences", pattern, start, hits);
+        }
+        start = System.nanoTime();
+        int found = index.findAll("status=503").size();
+        System.out.printf("heap findAll 'status=503' %8.2f ms  (%d hits)%n", (System.nanoTime() - start) / 1e6, found);
+
+        Path file = Files.createTempFile("corpus", ".sa");
+        try {
+            start = System.nanoTime();
+            MappedSuffixArray.write(index, file);
+            System.out.printf("write: %d ms, %d MB%n", (System.nanoTime() - start) / 1_000_000, Files.size(file) >> 20);
+            start = System.nanoTime();
+            MappedSuffixArray mapped = MappedSuffixArray.open(file);
+            System.out.printf("open: %.2f ms%n", (System.nanoTime() - start) / 1e6);
+            for (String pattern : PATTERNS) {
+                long hits = 0;
+                start = System.nanoTime();
+                for (int round = 0; round < QUERY_ROUNDS; round++) {
+                    hits += mapped.countOccurrences(pattern);
+                }
+                report("mapped countOccurrences", pattern, start, hits);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void report(String label, String pattern, long startNanos, long hits) {
+        System.out.printf("%s %-12s %8.2f us  (%d hits)%n", label, "'" + pattern.trim() + "'",
+                (System.nanoTime() - startNanos) / 1000.0 / QUERY_ROUNDS, hits / QUERY_ROUNDS);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
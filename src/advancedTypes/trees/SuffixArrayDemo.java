@@ -0,0 +1,50 @@
+package advancedTypes.trees;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class SuffixArrayDemo {
+    public static void main(String[] args) throws IOException {
+        SuffixArray index = new SuffixArray("banana");
+        System.out.println(index.contains("ana"));          // true
+        System.out.println(index.findAll("ana"));           // [1, 3]
+        System.out.println(index.countOccurrences("ana"));  // 2
+        System.out.println(index.findAll("na"));            // [2, 4]
+        System.out.println(index.contains("band"));         // false
+        System.out.println(index.findAll("banana"));        // [0]
+        System.out.println(index.longestRepeatedSubstring()); // ana
+        System.out.println("--------------------");
+        SuffixArray index2 = new SuffixArray("racecar");
+        System.out.println(index2.contains("ace"));         // true
+        System.out.println(index2.findAll("car"));          // [4]
+        System.out.println(index2.findAll("racecar"));      // [0]
+        System.out.println(index2.contains("racer"));       // false
+        System.out.println("--------------------");
+        Path file = Files.createTempFile("banana", ".sa");
+        MappedSuffixArray.write(index, file);
+        MappedSuffixArray mapped = MappedSuffixArray.open(file);
+        System.out.println(mapped.findAll("ana"));          // [1, 3]
+        System.out.println(mapped.countOccurrences("a"));   // 3
+        System.out.println(mapped.contains("nab"));         // false
+        Files.delete(file);
+        System.out.println("--------------------");
+        // with the 32 byte header, the last write buffer of these Latin-1 texts is 1 or 2 bytes short of full when the
+        // text ends, so the 3 or 2 bytes of padding after it need a flush of their own
+        for (int n : new int[] {2097116, 2097117, 2097118}) {
+            Random random = new Random(n);
+            StringBuilder text = new StringBuilder(n);
+            for (int i = 0; i < n; i++) {
+                text.append("acgt".charAt(random.nextInt(4)));
+            }
+            SuffixArray large = new SuffixArray(text.toString());
+            Path largeFile = Files.createTempFile("acgt", ".sa");
+            MappedSuffixArray.write(large, largeFile);
+            MappedSuffixArray largeMapped = MappedSuffixArray.open(largeFile);
+            System.out.println(n + ": " + (largeMapped.length() == n && largeMapped.countOccurrences("gattaca")
+                    == large.countOccurrences("gattaca"))); // true
+            Files.delete(largeFile);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package advancedTypes.trees;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Build and query times of SuffixTree (Ukkonen) against SuffixTrie on a log corpus.
+ *
+ * The corpus is the file passed as the first argument, or else CORPUS_SIZE characters of generated log lines.
+ * SuffixTrie stores every distinct substring as a node, O(n^2), so it is only run on the first few KB; SuffixTree runs
+ * on the same prefixes and then on the whole corpus.
+ *
+ * This is a plain main() harness, not JMH. the 10 MB tree needs a few GB of heap, run it with e.g. -Xms4g -Xmx4g and
+ * treat the numbers as relative.
+ */
+public class SuffixTreeBenchmark {
+    private static final int CORPUS_SIZE = 10 * 1024 * 1024;
+    private static final int[] TRIE_SIZES = {1024, 2048, 4096};
+    private static final int[] TREE_SIZES = {1024 * 1024, CORPUS_SIZE};
+    private static final String[] PATTERNS = {"ERROR", "status=503", "user=42 ", "latency=1", "zzz"};
+    private static final int QUERY_ROUNDS = 1000;
+
+    public static void main(String[] args) throws IOException {
+        String corpus = args.length > 0
+                ? new String(Files.readAllBytes(Paths.get(args[0])), StandardCharsets.UTF_8)
+                : generateLog(CORPUS_SIZE);
+        System.out.printf("%-12s %10s %14s %14s%n", "structure", "chars", "build (ms)", "findAll (us)");
+
+        for (int size : TRIE_SIZES) {
+            String text = corpus.substring(0, Math.min(size, corpus.length()));
+            long start = System.nanoTime();
+            SuffixTrie trie = new SuffixTrie(text);
+            long build = System.nanoTime() - start;
+            long hits = 0;
+            start = System.nanoTime();
+            for (int round = 0; round < QUERY_ROUNDS; round++) {
+                for (String pattern : PATTERNS) {
+                    hits += trie.findAll(trie.getRoot(), pattern).size();
+                }
+            }
+            report("SuffixTrie", text.length(), build, System.nanoTime() - start, hits);
+            trie = null;
+            benchTree(text);
+        }
+        for (int size : TREE_SIZES) {
+            benchTree(corpus.substring(0, Math.min(size, corpus.length())));
+        }
+    }
+
+    private static void benchTree(String text) {
+        long start = System.nanoTime();
+        SuffixTree tree = new SuffixTree(text);
+        long build = System.nanoTime() - start;
+        long hits = 0;
+        start = System.nanoTime();
+        for (int round = 0; round < QUERY_ROUNDS; round++) {
+            for (String pattern : PATTERNS) {
+                hits += tree.findAll(pattern).size();
+            }
+        }
+        report("SuffixTree", text.length(), build, System.nanoTime() - start, hits);
+    }
+
+    private static void report(String label, int chars, long buildNanos, long queryNanos, long hits) {
+        // per findAll call, hits keeps the result alive
+        System.out.printf("%-12s %10d %14d %14.2f   (%d hits)%n", label, chars, buildNanos / 1_000_000,
+                queryNanos / 1000.0 / (QUERY_ROUNDS * PATTERNS.length), hits / QUERY_ROUNDS);
+    }
+
+    /**
+     * Deterministic application-log-like text: timestamps, levels, thread names and key=value fields.
+     */
+    static String generateLog(int size) {
+        String[] levels = {"INFO", "INFO", "INFO", "DEBUG", "WARN", "ERROR"};
+        String[] paths = {"/api/v1/users", "/api/v1/orders", "/health", "/api/v2/search", "/login"};
+        int[] statuses = {200, 200, 200, 201, 404, 500, 503};
+        Random random = new Random(7);
+        StringBuilder log = new StringBuilder(size + 256);
+        long millis = 1_700_000_000_000L;
+        while (log.length() < size) {
+            millis += random.nextInt(50);
+            log.append(millis).append(' ')
+                    .append(levels[random.nextInt(levels.length)]).append(" [worker-").append(random.nextInt(16))
+                    .append("] path=").append(paths[random.nextInt(paths.length)])
+                    .append(" user=").append(random.nextInt(5000))
+                    .append(" status=").append(statuses[random.nextInt(statuses.length)])
+                    .append(" latency=").append(random.nextInt(2000)).append("ms\n");
+        }
+        log.setLength(size);
+        return log.toString();
+    }
+}
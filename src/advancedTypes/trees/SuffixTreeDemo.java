@@ -1,6 +1,9 @@
 package advancedTypes.trees;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -8,46 +11,233 @@ import java.util.Map;
  * Store edge labels as index ranges into the original string S(don't copy substrings).
  */
 class Edge {
+    // end of an edge into a leaf while the tree is being built: the edge grows with the global end
+    public static final int OPEN = Integer.MAX_VALUE;
+
     // inclusive index into S
     public int start;
-    // inclusive index into S
+    // inclusive index into S, or OPEN for a leaf edge
     public int end;
     // child node
     public SuffixNode to;
+
+    public Edge(int start, int end, SuffixNode to) {
+        this.start = start;
+        this.end = end;
+        this.to = to;
+    }
 }
 
 class SuffixNode {
-    // outgoing edges keyed by first char
+    // outgoing edges keyed by first char, null for leaves
     Map<Character, Edge> next;
     // for leaves, store suffixStart to know which suffix this leaf represents
     int suffixStart = -1; // -1 for internal nodes
+    // for internal nodes: the node for the same path without its first character
+    SuffixNode suffixLink;
+
+    static SuffixNode internal() {
+        SuffixNode node = new SuffixNode();
+        node.next = new HashMap<>();
+        return node;
+    }
+
+    static SuffixNode leaf(int suffixStart) {
+        SuffixNode node = new SuffixNode();
+        node.suffixStart = suffixStart;
+        return node;
+    }
+
+    boolean isLeaf() {
+        return this.next == null;
+    }
 }
 
+/**
+ * Suffix tree built with Ukkonen's online algorithm.
+ *
+ * The text is extended one character per phase. three tricks make the whole build O(n) (for a constant alphabet):
+ * - global end: every leaf edge ends at Edge.OPEN, read as the current phase, so all leaves grow by one character per
+ *   phase for free
+ * - active point (activeNode, activeEdge, activeLength): where the next suffix to insert currently ends, so
+ *   extensions that are already implicitly in the tree are skipped (remainder counts the pending ones)
+ * - suffix links: after inserting at xA, jump straight to A instead of walking down from the root again
+ *
+ * Searching walks the pattern down from the root in O(m). every leaf below the point where the pattern ends is an
+ * occurrence, and a subtree with occ leaves has fewer than 2 * occ nodes, so findAll is O(m + occ).
+ */
 class SuffixTree {
+    // appended to the text so that no suffix is a prefix of another and every suffix ends in a leaf
+    public static final char TERMINAL = '\uFFFF';
+
     private SuffixNode root;
+    private final char[] text;
+    // global end of all leaf edges during construction
+    private int end = -1;
 
     /**
-     * builds suffix tree for s + '$'
-     * @param s
+     * builds suffix tree for s + TERMINAL
+     * Time: O(n)
+     * Space: O(n)
+     * @param s must not contain TERMINAL, a Unicode noncharacter
      */
     public SuffixTree(String s) {
-        this.root = new SuffixNode();
+        if (s.indexOf(TERMINAL) >= 0) throw new IllegalArgumentException("text must not contain U+FFFF");
+        this.text = new char[s.length() + 1];
+        s.getChars(0, s.length(), this.text, 0);
+        this.text[s.length()] = TERMINAL;
+        this.root = SuffixNode.internal();
+        this.build();
     }
 
+    private void build() {
+        SuffixNode activeNode = this.root;
+        int activeEdge = 0;
+        int activeLength = 0;
+        // suffixes still to be inserted explicitly
+        int remainder = 0;
+
+        for (int i = 0; i < this.text.length; i++) {
+            this.end = i;
+            remainder += 1;
+            // internal node created in this phase that still waits for its suffix link
+            SuffixNode lastNew = null;
+
+            while (remainder > 0) {
+                if (activeLength == 0) activeEdge = i;
+                char first = this.text[activeEdge];
+                Edge edge = activeNode.next.get(first);
+
+                if (edge == null) {
+                    // rule 2: no edge starts with this character, hang a new leaf off activeNode
+                    activeNode.next.put(first, new Edge(i, Edge.OPEN, SuffixNode.leaf(i - remainder + 1)));
+                    if (lastNew != null) {
+                        lastNew.suffixLink = activeNode;
+                        lastNew = null;
+                    }
+                } else {
+                    int length = this.edgeLength(edge);
+                    if (activeLength >= length) {
+                        // skip/count: the active point lies past this edge, walk down
+                        activeEdge += length;
+                        activeLength -= length;
+                        activeNode = edge.to;
+                        continue;
+                    }
+                    if (this.text[edge.start + activeLength] == this.text[i]) {
+                        // rule 3: the suffix is already in the tree, this and all shorter ones wait for later phases
+                        if (lastNew != null && activeNode != this.root) {
+                            lastNew.suffixLink = activeNode;
+                        }
+                        activeLength += 1;
+                        break;
+                    }
+                    // rule 2: split the edge at the active point and hang a new leaf off the split node
+                    SuffixNode split = SuffixNode.internal();
+                    split.suffixLink = this.root;
+                    activeNode.next.put(first, new Edge(edge.start, edge.start + activeLength - 1, split));
+                    split.next.put(this.text[i], new Edge(i, Edge.OPEN, SuffixNode.leaf(i - remainder + 1)));
+                    edge.start += activeLength;
+                    split.next.put(this.text[edge.start], edge);
+                    if (lastNew != null) lastNew.suffixLink = split;
+                    lastNew = split;
+                }
+
+                remainder -= 1;
+                if (activeNode == this.root && activeLength > 0) {
+                    activeLength -= 1;
+                    activeEdge = i - remainder + 1;
+                } else if (activeNode != this.root) {
+                    activeNode = activeNode.suffixLink == null ? this.root : activeNode.suffixLink;
+                }
+            }
+        }
+    }
+
+    private int edgeLength(Edge edge) {
+        return Math.min(edge.end, this.end) - edge.start + 1;
+    }
+
+    /**
+     * Checks if p occurs in the text.
+     * Time: O(m)
+     * - where m is the length of p
+     * @param p
+     * @return
+     */
     public boolean contains(String p) {
-        // TODO
-        return false;
+        return this.locate(p) != null;
     }
 
+    /**
+     * Find all the start indices of p in the text, in no particular order.
+     * Time: O(m + occ)
+     * Space: O(occ)
+     * - where m is the length of p and occ the number of occurrences
+     * @param p
+     * @return
+     */
     public List<Integer> findAll(String p) {
-        // TODO
-        return new ArrayList<Integer>();
+        List<Integer> results = new ArrayList<>();
+        SuffixNode node = this.locate(p);
+        if (node == null) return results;
+        Deque<SuffixNode> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            SuffixNode curr = stack.pop();
+            if (curr.isLeaf()) {
+                results.add(curr.suffixStart);
+                continue;
+            }
+            for (Edge edge : curr.next.values()) {
+                stack.push(edge.to);
+            }
+        }
+        return results;
     }
 
+    /**
+     * Walk p down from the root.
+     * @return the highest node whose path starts with p, or null if p does not occur
+     */
+    private SuffixNode locate(String p) {
+        SuffixNode node = this.root;
+        int i = 0;
+        while (i < p.length()) {
+            if (node.isLeaf()) return null;
+            Edge edge = node.next.get(p.charAt(i));
+            if (edge == null) return null;
+            int length = this.edgeLength(edge);
+            for (int k = 0; k < length && i < p.length(); k++, i++) {
+                if (this.text[edge.start + k] != p.charAt(i)) return null;
+            }
+            node = edge.to;
+        }
+        return node;
+    }
+
+    /**
+     * Length of the text, including the terminal character.
+     */
+    public int length() {
+        return this.text.length;
+    }
 }
 
 public class SuffixTreeDemo {
     public static void main(String[] args) {
-
+        SuffixTree tree = new SuffixTree("banana");
+        System.out.println(tree.contains("ana"));     // true
+        System.out.println(tree.findAll("ana"));      // [1, 3] in some order
+        System.out.println(tree.findAll("na"));       // [2, 4] in some order
+        System.out.println(tree.contains("band"));    // false
+        System.out.println(tree.findAll("banana"));   // [0]
+        System.out.println(tree.findAll("a").size()); // 3
+        System.out.println("--------------------");
+        SuffixTree tree2 = new SuffixTree("mississippi");
+        System.out.println(tree2.findAll("issi"));    // [1, 4] in some order
+        System.out.println(tree2.findAll("ssi"));     // [2, 5] in some order
+        System.out.println(tree2.contains("sippi"));  // true
+        System.out.println(tree2.contains("sipps"));  // false
     }
 }
@@ -6,10 +6,15 @@ class TrieNode {
     public static int ALPHABET_COUNT = 26;
     public boolean endOfWord;
     public Map<Character, TrieNode> children;
+    // score of the word ending here, only meaningful if endOfWord
+    public int score;
+    // highest score of any word in this subtree, Integer.MIN_VALUE if there is none
+    public int maxScore;
 
     public TrieNode(boolean endOfWord) {
         children = new HashMap<>();
         this.endOfWord = endOfWord;
+        this.maxScore = Integer.MIN_VALUE;
     }
 
     public Map<Character, TrieNode> getChildren() {
@@ -30,23 +35,51 @@ class Trie {
     }
 
     /**
-     * Insert a word into the trie.
+     * Insert a word into the trie with score 0.
      *
      * Time: O(L)
      * - where L is the length of the word
      * @param word
      */
     public void insert(String word) {
+        this.insert(word, 0);
+    }
+
+    /**
+     * Insert a word into the trie with a score, used to rank it in topK. inserting an existing word replaces its score.
+     *
+     * Time: O(L * a)
+     * - where L is the length of the word and a the alphabet size (refreshing maxScore on the way back up)
+     * @param word
+     * @param score
+     */
+    public void insert(String word, int score) {
         String sanitizedWord = word.toLowerCase(Locale.ROOT).trim();
-        if (word.isEmpty()) return;
+        if (sanitizedWord.isEmpty()) return;
+        TrieNode[] path = new TrieNode[sanitizedWord.length() + 1];
         TrieNode curr = this.root;
-        for (int i = 0; i < word.length(); i++) {
+        path[0] = curr;
+        for (int i = 0; i < sanitizedWord.length(); i++) {
             char alphabet = sanitizedWord.charAt(i);
             Map<Character, TrieNode> children = curr.getChildren();
             children.putIfAbsent(alphabet, new TrieNode(false));
             curr = children.get(alphabet);
+            path[i + 1] = curr;
         }
         curr.endOfWord = true;
+        curr.score = score;
+        // a replaced score can lower the max, so recompute bottom up instead of just taking the max with score
+        for (int i = path.length - 1; i >= 0; i--) {
+            updateMaxScore(path[i]);
+        }
+    }
+
+    private static void updateMaxScore(TrieNode node) {
+        int max = node.endOfWord ? node.score : Integer.MIN_VALUE;
+        for (TrieNode child : node.getChildren().values()) {
+            max = Math.max(max, child.maxScore);
+        }
+        node.maxScore = max;
     }
 
     /**
@@ -93,6 +126,7 @@ class Trie {
                 return false; // word not found
             }
             curr.endOfWord = false; // unmark end of word
+            updateMaxScore(curr);
             return curr.getChildren().isEmpty(); // prune if no children
         }
         char alphabet = str.charAt(index);
@@ -104,9 +138,11 @@ class Trie {
         boolean shouldDeleteChild = this.deleteRecursive(next, str, index + 1);
         if (shouldDeleteChild) {
             children.remove(alphabet); // delete the mapping to child
+            updateMaxScore(curr);
             // Prune current node if it has no children and is not end of another word
             return children.isEmpty() && !curr.endOfWord;
         }
+        updateMaxScore(curr); // the deleted word may have been the best one below curr
         return false; // Either child wasn't deleted, or node must be preserved
     }
 
@@ -152,6 +188,119 @@ class Trie {
         }
     }
 
+    /**
+     * Get the k highest scored words starting with 'prefix', best first.
+     * Best-first search over the subtree, ordered by each node's cached maxScore: a node is only expanded once it is
+     * the most promising candidate left, so the search stops after about k root-to-word paths instead of visiting
+     * every matching word. words are only turned into strings when they are returned.
+     * Time: O(k * L * a * log(k * L * a))
+     * - where L is the length of the longest returned word and a the alphabet size
+     * Space: O(k * L * a)
+     * @param prefix
+     * @param k
+     * @return
+     */
+    public List<String> topK(String prefix, int k) {
+        if (k < 0) throw new IllegalArgumentException("k: " + k + " must not be negative");
+        List<String> results = new ArrayList<>(Math.min(k, 64));
+        Iterator<String> iterator = this.iterateByScore(prefix);
+        while (results.size() < k && iterator.hasNext()) {
+            results.add(iterator.next());
+        }
+        return results;
+    }
+
+    /**
+     * Lazily iterate the words starting with 'prefix' from highest to lowest score. each next() only does the search
+     * work needed to find one more word. the trie must not be modified while iterating.
+     * @param prefix
+     * @return
+     */
+    public Iterator<String> iterateByScore(String prefix) {
+        String sanitizedPrefix = prefix.toLowerCase(Locale.ROOT).trim();
+        TrieNode node = sanitizedPrefix.isEmpty() ? this.root : this.getNode(sanitizedPrefix);
+        return new ScoreIterator(sanitizedPrefix, node);
+    }
+
+    /**
+     * A search candidate: either a subtree still to be expanded, or a word ready to be returned. the path is kept as a
+     * parent link + one character, so no string is built until the word is returned.
+     */
+    private static class Candidate {
+        final TrieNode node;
+        final Candidate parent;
+        final char alphabet;
+        final int depth;
+        final boolean word;
+
+        Candidate(TrieNode node, Candidate parent, char alphabet, int depth, boolean word) {
+            this.node = node;
+            this.parent = parent;
+            this.alphabet = alphabet;
+            this.depth = depth;
+            this.word = word;
+        }
+
+        int priority() {
+            return this.word ? this.node.score : this.node.maxScore;
+        }
+    }
+
+    private static class ScoreIterator implements Iterator<String> {
+        private final String prefix;
+        private final PriorityQueue<Candidate> queue =
+                new PriorityQueue<>((a, b) -> Integer.compare(b.priority(), a.priority()));
+        private Candidate nextWord;
+
+        ScoreIterator(String prefix, TrieNode start) {
+            this.prefix = prefix;
+            if (start != null) this.queue.add(new Candidate(start, null, '\0', 0, false));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.nextWord == null) this.nextWord = this.advance();
+            return this.nextWord != null;
+        }
+
+        @Override
+        public String next() {
+            if (!this.hasNext()) throw new NoSuchElementException();
+            Candidate word = this.nextWord;
+            this.nextWord = null;
+            return this.spell(word);
+        }
+
+        /**
+         * Expand subtrees until a word is at the front of the queue. a word's score is never below the maxScore of
+         * anything still queued, so it is the best word left.
+         */
+        private Candidate advance() {
+            while (!this.queue.isEmpty()) {
+                Candidate top = this.queue.poll();
+                if (top.word) return top;
+                TrieNode node = top.node;
+                if (node.endOfWord) this.queue.add(new Candidate(node, top, '\0', top.depth, true));
+                for (Map.Entry<Character, TrieNode> child : node.getChildren().entrySet()) {
+                    this.queue.add(new Candidate(child.getValue(), top, child.getKey(), top.depth + 1, false));
+                }
+            }
+            return null;
+        }
+
+        private String spell(Candidate word) {
+            char[] chars = new char[this.prefix.length() + word.depth];
+            this.prefix.getChars(0, this.prefix.length(), chars, 0);
+            // a word candidate shares its node's depth, start from its parent subtree candidate
+            Candidate curr = word.parent;
+            for (int i = chars.length - 1; i >= this.prefix.length(); i--) {
+                chars[i] = curr.alphabet;
+                curr = curr.parent;
+            }
+            return new String(chars);
+        }
+    }
+
     private TrieNode getNode(String str) {
         if (str.isEmpty()) return null;
         TrieNode curr = this.root;
@@ -163,6 +312,16 @@ class Trie {
         return curr;
     }
 
+    /**
+     * Freeze a read-only snapshot of this trie into flat arrays. later changes to this trie are not reflected in it.
+     * Time: O(N * a log a)
+     * - where N is the number of nodes and a the alphabet size
+     * @return
+     */
+    public CompactTrie freeze() {
+        return CompactTrie.build(this.root);
+    }
+
     public void print() {
         System.out.println(this.root);
     }
@@ -184,5 +343,37 @@ public class TrieDemo {
         System.out.println(trie.search("app"));;     // returns true
 
         System.out.println(trie.getAllWordsStartingWith("app"));
+
+        trie.insert("apply");
+        trie.insert("banana");
+        trie.insert("band");
+        CompactTrie compact = trie.freeze();
+        System.out.println(compact.search("apple"));    // returns true
+        System.out.println(compact.search("appl"));     // returns false
+        System.out.println(compact.startsWith("ban"));  // returns true
+        System.out.println(compact.getAllWordsStartingWith("app")); // [app, apple, apply]
+        System.out.println(compact.size() + " words in " + compact.nodeCount() + " nodes"); // 5 words in 14 nodes
+
+        Trie weighted = new Trie();
+        weighted.insert("car", 40);
+        weighted.insert("cart", 15);
+        weighted.insert("carbon", 90);
+        weighted.insert("care", 60);
+        weighted.insert("cat", 75);
+        weighted.insert("dog", 99);
+        System.out.println(weighted.topK("ca", 3));  // [carbon, cat, care]
+        System.out.println(weighted.topK("car", 10)); // [carbon, care, car, cart]
+        weighted.delete("carbon");
+        Iterator<String> byScore = weighted.iterateByScore("c");
+        System.out.println(byScore.next() + " " + byScore.next()); // cat care
+
+        SnapshotTrie shared = new SnapshotTrie();
+        shared.insertAll(Arrays.asList("tea", "ten", "to"));
+        PersistentTrie before = shared.snapshot();
+        shared.insert("tent");
+        shared.delete("to");
+        System.out.println(before.getAllWordsStartingWith("t"));          // [tea, ten, to], old snapshot unchanged
+        System.out.println(shared.snapshot().getAllWordsStartingWith("t")); // [tea, ten, tent]
+        System.out.println(shared); // SnapshotTrie{version=5, published=3, casRetries=0, copiedNodes=19}
     }
 }